@@ -0,0 +1,112 @@
+package eightpuzzle;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Micro-benchmarks for the per-node board operations: successor generation (the old applyMove),
+ * visited-set keys (the old serializeState), heuristic evaluation and the goal test.
+ *
+ * Each invocation runs over a fixed set of boards so results are per-board averages rather
+ * than a single branch-predicted case.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    private static final int BOARDS = 1024;
+
+    private final long[] boards = new long[BOARDS];
+
+    @Setup
+    public void setup() {
+        Random rand = new Random(123);
+        long board = Board.GOAL;
+        for (int i = 0; i < BOARDS; i++) {
+            long next = Board.move(board, rand.nextInt(4));
+            if (next != Board.NONE) {
+                board = next;
+            }
+            boards[i] = board;
+        }
+    }
+
+    @Benchmark
+    public void move(Blackhole bh) {
+        for (long board : boards) {
+            for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                bh.consume(Board.move(board, dir));
+            }
+        }
+    }
+
+    @Benchmark
+    public void rank(Blackhole bh) {
+        for (long board : boards) {
+            bh.consume(Board.rank(board));
+        }
+    }
+
+    @Benchmark
+    public void index(Blackhole bh) {
+        for (long board : boards) {
+            bh.consume(Board.index(board));
+        }
+    }
+
+    @Benchmark
+    public void misplacedTiles(Blackhole bh) {
+        for (long board : boards) {
+            bh.consume(Heuristic.TileCosts.MISPLACED.evaluate(board));
+        }
+    }
+
+    @Benchmark
+    public void manhattanDistance(Blackhole bh) {
+        for (long board : boards) {
+            bh.consume(Heuristic.TileCosts.MANHATTAN.evaluate(board));
+        }
+    }
+
+    @Benchmark
+    public void linearConflict(Blackhole bh) {
+        for (long board : boards) {
+            bh.consume(Heuristic.LinearConflict.INSTANCE.evaluate(board));
+        }
+    }
+
+    // Successor value derived from the parent's, as A* does it
+    @Benchmark
+    public void manhattanUpdate(Blackhole bh) {
+        Heuristic manhattan = Heuristic.of("h2");
+        for (long board : boards) {
+            long child = Board.move(board, Board.LEFT);
+            if (child != Board.NONE) {
+                bh.consume(manhattan.update(board, 0, child));
+            }
+        }
+    }
+
+    @Benchmark
+    public void isGoal(Blackhole bh) {
+        for (long board : boards) {
+            bh.consume(Board.isGoal(board));
+        }
+    }
+}
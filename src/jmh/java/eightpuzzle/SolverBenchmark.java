@@ -0,0 +1,91 @@
+package eightpuzzle;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole-solve throughput for each search algorithm on boards scrambled a fixed number of moves.
+ *
+ * Besides solves per second, the {@code nodes} counter reports nodes created per second. Run
+ * with {@code -prof gc} to see the allocation rate per solve.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    private static final int MAXNODES = 1_000_000;
+    private static final int BOARDS = 64;
+
+    @Param({ "DFS", "BFS", "AStar-h1", "AStar-h2" })
+    public String algorithm;
+
+    @Param({ "6", "10", "14" })
+    public int depth;
+
+    private final long[] boards = new long[BOARDS];
+    private Solver search;
+    private int next;
+
+    // Nodes created, reported by JMH as a rate alongside the solve throughput
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        search = Solver.named(algorithm, Board.SIZE, MAXNODES);
+        Random rand = new Random(123);
+        for (int i = 0; i < BOARDS; i++) {
+            boards[i] = scramble(rand, depth);
+        }
+    }
+
+    // Random walk of the given length from the goal that never immediately undoes a move
+    private static long scramble(Random rand, int moves) {
+        long board = Board.GOAL;
+        int previous = -1;
+        for (int i = 0; i < moves; ) {
+            int dir = rand.nextInt(4);
+            long child = Board.move(board, dir);
+            if (child != Board.NONE && (previous < 0 || dir != Board.inverse(previous))) {
+                board = child;
+                previous = dir;
+                i++;
+            }
+        }
+        return board;
+    }
+
+    @Benchmark
+    public SearchResult solve(Nodes counters) {
+        SearchResult result = search.solve(boards[next]);
+        next = (next + 1) % BOARDS;
+        counters.nodes += result.nodesCreated;
+        return result;
+    }
+}
@@ -0,0 +1,121 @@
+package eightpuzzle;
+
+/**
+ * Anytime A*: a sequence of weighted A* passes with decreasing weight, each bounded by the best
+ * solution found so far.
+ *
+ * A pass with weight w orders nodes by g + w * h. It finds a solution quickly, and that
+ * solution is at most w times the optimal length. Later passes start over with a smaller
+ * weight and prune every node whose g + h cannot beat the incumbent. The last pass is plain A*,
+ * so if it completes the incumbent is optimal. When the node budget or deadline runs out, the
+ * best solution so far is returned. Works on packed boards of any packable size.
+ */
+final class AnytimeAStar {
+
+    // Pass weights in quarters: 5, 3, 2, 1.5, 1.25 and finally 1, so f stays an integer for the bucket queue
+    private static final int SCALE = 4;
+    private static final int[] WEIGHTS = { 20, 12, 8, 6, 5, 4 };
+
+    // Expanded boards are never reopened, as in ARA*: with a consistent heuristic each pass keeps its bound
+    private static final int CLOSED = 1 << 30;
+
+    private static final int CLOCK_INTERVAL = 1024; // nodes created between reads of the clock
+
+    private final Geometry geometry;
+    private final Heuristic estimate;
+    private final int maxnodes;
+    private final long budgetNanos;
+
+    AnytimeAStar(Geometry geometry, String heuristic, int maxnodes, long budgetNanos) {
+        this.geometry = geometry;
+        this.estimate = Heuristic.of(geometry, heuristic);
+        this.maxnodes = maxnodes;
+        this.budgetNanos = budgetNanos;
+    }
+
+    // Solves a board packed as Geometry.pack does
+    SearchResult solve(long start) {
+        SearchStats stats = new SearchStats("AnytimeA*");
+        double bound = Double.POSITIVE_INFINITY; // the incumbent is at most this factor longer than optimal
+        if (!Solvability.isSolvable(geometry.unpack(start), geometry.size)) {
+            return SearchResult.unsolvable(stats);
+        }
+        long deadline = System.nanoTime() + budgetNanos;
+        SearchNode best = null;
+        int nodesCreated = 0;
+        int nextCheck = CLOCK_INTERVAL;
+
+        for (int weight : WEIGHTS) {
+            OpenList open = new OpenList.Buckets();
+            LongIntMap visited = new LongIntMap(); // best g per board, with CLOSED set once expanded
+            SearchNode root = new SearchNode(start);
+            root.cost = weight * estimate.evaluate(start);
+            open.add(root);
+            visited.put(start, 0);
+            nodesCreated++;
+            while (!open.isEmpty()) {
+                // An expansion creates up to four nodes, so a threshold rather than a mask decides when to look
+                boolean late = false;
+                if (nodesCreated >= nextCheck) {
+                    nextCheck = nodesCreated + CLOCK_INTERVAL;
+                    late = System.nanoTime() - deadline > 0;
+                }
+                if (nodesCreated > maxnodes || late) {
+                    stats.visited(visited.size());
+                    return finish(stats, nodesCreated, best, true).withBound(bound, nodesCreated <= maxnodes);
+                }
+                stats.open(open.size());
+                SearchNode node = open.poll();
+                if (visited.get(node.state, 0) != node.g) {
+                    continue; // already expanded, or superseded by a cheaper copy
+                }
+                visited.put(node.state, node.g | CLOSED);
+                int h = (node.cost - SCALE * node.g) / weight;
+                if (best != null && node.g + h >= best.g) {
+                    continue; // cannot beat the incumbent; h is admissible
+                }
+                if (node.state == geometry.goal) {
+                    best = node;
+                    break;
+                }
+                stats.expanded++;
+                for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                    long child = geometry.move(node.state, dir);
+                    if (child == Board.NONE) {
+                        continue;
+                    }
+                    int g = node.g + 1;
+                    int seen = visited.get(child, CLOSED - 1);
+                    if ((seen & CLOSED) != 0 || g >= seen) {
+                        stats.duplicates++;
+                        continue;
+                    }
+                    int childH = estimate.update(node.state, h, child);
+                    if (best != null && g + childH >= best.g) {
+                        continue;
+                    }
+                    visited.put(child, g);
+                    open.add(new SearchNode(child, node, dir, SCALE * g + weight * childH));
+                    nodesCreated++;
+                }
+            }
+            stats.visited(visited.size());
+            if (best == null) {
+                break; // the pass ran dry, so the start cannot reach the goal
+            }
+            // A completed pass proves the incumbent within its weight of optimal, whether or not it
+            // found a new one. Boards are never reopened, so a weighted pass that finds nothing
+            // better proves no more than that; only the last pass, at weight 1, proves optimality.
+            bound = (double) weight / SCALE;
+        }
+        return finish(stats, nodesCreated, best, false).withBound(bound, false);
+    }
+
+    // The incumbent if there is one, otherwise why there is none
+    private static SearchResult finish(SearchStats stats, int nodesCreated, SearchNode best, boolean outOfBudget) {
+        if (best != null) {
+            return SearchResult.solved(stats, nodesCreated, best.path());
+        }
+        return outOfBudget ? SearchResult.maxnodes(stats, nodesCreated) : SearchResult.noSolution(stats, nodesCreated);
+    }
+}
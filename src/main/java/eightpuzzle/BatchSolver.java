@@ -0,0 +1,173 @@
+package eightpuzzle;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Solves a file of start states across all cores.
+ *
+ * The input has one board per line as nine tiles ("1 2 5 6 3 4 0 7 8"); blank lines and
+ * comments are skipped. Boards are read in chunks, each chunk is split across the common
+ * fork/join pool with one independent search per board, and results are written in input
+ * order as {@code <board> | solved <length> <moves...>}, {@code | maxnodes},
+ * {@code | unsolvable}, {@code | nosolution} or {@code | invalid}.
+ */
+final class BatchSolver {
+
+    private static final int CHUNK = 1 << 16; // boards read and solved per round
+    private static final int SPLIT = 64; // boards below which a task solves sequentially
+
+    private BatchSolver() {
+    }
+
+    // Thrown when the results cannot be written, as opposed to the input not being readable
+    static final class OutputException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        OutputException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Solves every board in input and writes the results to output, or to console if output is
+     * null. Failures to create or write output are thrown as {@link OutputException}.
+     */
+    static int run(String input, Solver search, String output, PrintStream console) throws IOException {
+        int total = 0;
+        String message = null; // the first problem any search reported
+        // Open the input first, so a missing input never truncates the output file
+        try (BufferedReader reader = new BufferedReader(new FileReader(input))) {
+            BufferedWriter out = new BufferedWriter(open(output, console), 1 << 16);
+            String[] lines = new String[CHUNK];
+            long[] boards = new long[CHUNK];
+            SearchResult[] results = new SearchResult[CHUNK];
+            int count;
+            try {
+                do {
+                    count = 0;
+                    String line;
+                    while (count < CHUNK && (line = reader.readLine()) != null) {
+                        line = line.trim();
+                        if (line.isEmpty() || line.startsWith("#") || line.startsWith("//")) {
+                            continue;
+                        }
+                        lines[count] = line;
+                        boards[count] = Board.parse(line);
+                        count++;
+                    }
+                    ForkJoinPool.commonPool().invoke(new SolveRange(search, boards, results, 0, count));
+                    try {
+                        for (int i = 0; i < count; i++) {
+                            if (message == null && results[i] != null) {
+                                message = results[i].message;
+                            }
+                            out.write(lines[i]);
+                            out.write(" | ");
+                            out.write(format(boards[i], results[i]));
+                            out.newLine();
+                            results[i] = null;
+                        }
+                    } catch (IOException e) {
+                        throw new OutputException(e);
+                    }
+                    total += count;
+                } while (count == CHUNK);
+            } finally {
+                close(out, output == null);
+            }
+        }
+        // A table problem affects every board alike, so it is reported once, after the results
+        if (message != null) {
+            console.println(message);
+        }
+        return total;
+    }
+
+    private static Writer open(String output, PrintStream console) throws OutputException {
+        if (output == null) {
+            return new OutputStreamWriter(console);
+        }
+        try {
+            return Files.newBufferedWriter(Paths.get(output));
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+    }
+
+    // Never closes the console, only a file we opened
+    private static void close(BufferedWriter out, boolean console) throws OutputException {
+        try {
+            if (console) {
+                out.flush();
+            } else {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new OutputException(e);
+        }
+    }
+
+    private static String format(long board, SearchResult result) {
+        if (board == Board.NONE) {
+            return "invalid";
+        }
+        switch (result.status) {
+            case SOLVED:
+                StringBuilder sb = new StringBuilder("solved ").append(result.path.length);
+                for (byte move : result.path) {
+                    sb.append(' ').append(Board.DIRECTION_NAMES[move]);
+                }
+                return sb.toString();
+            case MAXNODES:
+                return "maxnodes";
+            case UNSOLVABLE:
+                return "unsolvable";
+            default:
+                return "nosolution";
+        }
+    }
+
+    // Solves boards[from, to) by halving the range until it is small enough to run in place
+    private static final class SolveRange extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Solver search;
+        private final long[] boards;
+        private final SearchResult[] results;
+        private final int from;
+        private final int to;
+
+        SolveRange(Solver search, long[] boards, SearchResult[] results, int from, int to) {
+            this.search = search;
+            this.boards = boards;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT) {
+                for (int i = from; i < to; i++) {
+                    if (boards[i] != Board.NONE) {
+                        results[i] = search.solve(boards[i]);
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new SolveRange(search, boards, results, from, mid),
+                    new SolveRange(search, boards, results, mid, to));
+        }
+    }
+}
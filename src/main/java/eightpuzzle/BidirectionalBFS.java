@@ -0,0 +1,134 @@
+package eightpuzzle;
+
+import java.util.Arrays;
+
+/**
+ * Breadth-first search run from the start and the goal at the same time.
+ *
+ * Each step expands one whole layer of whichever frontier is smaller. For every board seen, the
+ * search stores the move that reached it, in a byte array indexed by {@link Board#rank(long)}, so
+ * neither side needs node objects and both half-paths can be walked back from the meeting board.
+ * The layer in which the frontiers first touch is finished before stopping, so the shortest join
+ * is used and the result is optimal.
+ */
+final class BidirectionalBFS {
+
+    private static final byte UNSEEN = 0;
+    private static final byte ROOT = 5; // moves are stored as direction + 1
+
+    private final int maxnodes;
+    private byte[] forward;
+    private byte[] backward;
+    private int nodesCreated;
+    private SearchStats stats;
+
+    BidirectionalBFS(int maxnodes) {
+        this.maxnodes = maxnodes;
+    }
+
+    SearchResult solve(long start) {
+        stats = new SearchStats("BiBFS");
+        if (!Solvability.isSolvable(start)) {
+            return SearchResult.unsolvable(stats);
+        }
+        if (Board.isGoal(start)) {
+            return SearchResult.solved(stats, 1, new byte[0]);
+        }
+        nodesCreated = 2;
+        forward = new byte[Board.PERMUTATIONS];
+        backward = new byte[Board.PERMUTATIONS];
+        forward[Board.rank(start)] = ROOT;
+        backward[Board.rank(Board.GOAL)] = ROOT;
+        long[] forwardLayer = { start };
+        long[] backwardLayer = { Board.GOAL };
+        int forwardSize = 1;
+        int backwardSize = 1;
+
+        while (forwardSize > 0 && backwardSize > 0) {
+            stats.open(forwardSize + backwardSize);
+            boolean expandForward = forwardSize <= backwardSize;
+            long[] layer = expandForward ? forwardLayer : backwardLayer;
+            int size = expandForward ? forwardSize : backwardSize;
+            byte[] seen = expandForward ? forward : backward;
+            byte[] other = expandForward ? backward : forward;
+
+            long[] next = new long[Math.max(16, size * 3)];
+            int nextSize = 0;
+            long meeting = Board.NONE;
+            int best = Integer.MAX_VALUE;
+            stats.expanded += size;
+            for (int i = 0; i < size; i++) {
+                long board = layer[i];
+                for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                    long child = Board.move(board, dir);
+                    if (child == Board.NONE) {
+                        continue;
+                    }
+                    int rank = Board.rank(child);
+                    if (seen[rank] != UNSEEN) {
+                        stats.duplicates++;
+                        continue;
+                    }
+                    seen[rank] = (byte) (dir + 1);
+                    if (++nodesCreated > maxnodes) {
+                        stats.peakVisited = nodesCreated;
+                        return SearchResult.maxnodes(stats, nodesCreated);
+                    }
+                    if (other[rank] != UNSEEN) {
+                        int length = depth(forward, child) + depth(backward, child);
+                        if (length < best) {
+                            best = length;
+                            meeting = child;
+                        }
+                    }
+                    if (nextSize == next.length) {
+                        next = Arrays.copyOf(next, next.length * 2);
+                    }
+                    next[nextSize++] = child;
+                }
+            }
+            if (meeting != Board.NONE) {
+                stats.peakVisited = nodesCreated;
+                return SearchResult.solved(stats, nodesCreated, join(meeting, best));
+            }
+            if (expandForward) {
+                forwardLayer = next;
+                forwardSize = nextSize;
+            } else {
+                backwardLayer = next;
+                backwardSize = nextSize;
+            }
+        }
+        stats.peakVisited = nodesCreated;
+        return SearchResult.noSolution(stats, nodesCreated);
+    }
+
+    // Number of moves between board and the root of the search that recorded it
+    private static int depth(byte[] seen, long board) {
+        int depth = 0;
+        for (int step = seen[Board.rank(board)]; step != ROOT; step = seen[Board.rank(board)]) {
+            board = Board.move(board, Board.inverse(step - 1));
+            depth++;
+        }
+        return depth;
+    }
+
+    // Stitch the start-to-meeting half-path to the meeting-to-goal half-path
+    private byte[] join(long meeting, int length) {
+        byte[] path = new byte[length];
+        int split = depth(forward, meeting);
+        long board = meeting;
+        for (int i = split - 1; i >= 0; i--) {
+            int dir = forward[Board.rank(board)] - 1;
+            path[i] = (byte) dir;
+            board = Board.move(board, Board.inverse(dir));
+        }
+        board = meeting;
+        for (int i = split; i < length; i++) {
+            int back = Board.inverse(backward[Board.rank(board)] - 1);
+            path[i] = (byte) back;
+            board = Board.move(board, back);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,233 @@
+package eightpuzzle;
+
+/**
+ * Packed representation of a 3x3 puzzle board.
+ *
+ * A board is a single {@code long}: the tile at position {@code i} (row-major, 0..8) lives in
+ * the 4-bit nibble at bits {@code 4*i..4*i+3}, and the index of the blank tile is cached in
+ * bits 36..39 so successors can be produced without scanning the grid.
+ */
+public final class Board {
+
+    public static final int SIZE = 3;
+    public static final int CELLS = SIZE * SIZE;
+
+    // Move directions, named after the way the blank travels
+    public static final int UP = 0;
+    public static final int DOWN = 1;
+    public static final int LEFT = 2;
+    public static final int RIGHT = 3;
+    public static final String[] DIRECTION_NAMES = { "up", "down", "left", "right" };
+
+    // Direction a move takes on the mirror image of the board, see mirror()
+    public static final int[] MIRRORED_DIRECTION = { LEFT, RIGHT, UP, DOWN };
+
+    // Returned by move() when the blank cannot travel in the requested direction
+    public static final long NONE = -1L;
+
+    private static final int BLANK_SHIFT = 4 * CELLS;
+    private static final long TILE_MASK = (1L << BLANK_SHIFT) - 1;
+
+    // Number of permutations of nine tiles; ranks lie in [0, PERMUTATIONS)
+    public static final int PERMUTATIONS = 362880;
+
+    // Number of boards reachable from the goal; solvable indexes lie in [0, SOLVABLE)
+    public static final int SOLVABLE = PERMUTATIONS / 2;
+
+    private static final int[] FACTORIALS = { 40320, 5040, 720, 120, 24, 6, 2, 1, 1 };
+
+    public static final long GOAL = pack(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 });
+
+    // NEIGHBOURS[pos][dir] is the position the blank moves to, or -1 if it would leave the grid
+    private static final int[][] NEIGHBOURS = new int[CELLS][4];
+
+    // TRANSPOSED[pos] is the position reflected in the main diagonal
+    private static final int[] TRANSPOSED = { 0, 3, 6, 1, 4, 7, 2, 5, 8 };
+
+    static {
+        for (int pos = 0; pos < CELLS; pos++) {
+            int row = pos / SIZE;
+            int col = pos % SIZE;
+            NEIGHBOURS[pos][UP] = row > 0 ? pos - SIZE : -1;
+            NEIGHBOURS[pos][DOWN] = row < SIZE - 1 ? pos + SIZE : -1;
+            NEIGHBOURS[pos][LEFT] = col > 0 ? pos - 1 : -1;
+            NEIGHBOURS[pos][RIGHT] = col < SIZE - 1 ? pos + 1 : -1;
+        }
+    }
+
+    private Board() {
+    }
+
+    // Packs nine row-major tile values into a board; the values are assumed to be validated
+    public static long pack(int[] tiles) {
+        long board = 0;
+        int blank = 0;
+        for (int i = 0; i < CELLS; i++) {
+            board |= (long) tiles[i] << (4 * i);
+            if (tiles[i] == 0) {
+                blank = i;
+            }
+        }
+        return board | ((long) blank << BLANK_SHIFT);
+    }
+
+    // Parses nine whitespace-separated tiles, returning NONE unless each of 0..8 appears exactly once
+    public static long parse(String text) {
+        String[] tokens = text.trim().split("\\s+");
+        if (tokens.length != CELLS) {
+            return NONE;
+        }
+        int[] tiles = new int[CELLS];
+        int seen = 0;
+        for (int i = 0; i < CELLS; i++) {
+            int tile;
+            try {
+                tile = Integer.parseInt(tokens[i]);
+            } catch (NumberFormatException e) {
+                return NONE;
+            }
+            if (tile < 0 || tile >= CELLS || (seen & (1 << tile)) != 0) {
+                return NONE;
+            }
+            seen |= 1 << tile;
+            tiles[i] = tile;
+        }
+        return pack(tiles);
+    }
+
+    public static int tileAt(long board, int pos) {
+        return (int) (board >>> (4 * pos)) & 0xF;
+    }
+
+    public static int blank(long board) {
+        return (int) (board >>> BLANK_SHIFT) & 0xF;
+    }
+
+    // Position the blank would move to, or -1 if the move leaves the grid
+    public static int target(int blank, int direction) {
+        return NEIGHBOURS[blank][direction];
+    }
+
+    // Slide the blank one step in the given direction, or return NONE if that is not possible
+    public static long move(long board, int direction) {
+        int blank = (int) (board >>> BLANK_SHIFT) & 0xF;
+        int target = NEIGHBOURS[blank][direction];
+        if (target < 0) {
+            return NONE;
+        }
+        long tile = (board >>> (4 * target)) & 0xF;
+        long tiles = (board & TILE_MASK & ~(0xFL << (4 * target))) | (tile << (4 * blank));
+        return tiles | ((long) target << BLANK_SHIFT);
+    }
+
+    // Lehmer rank of the tile permutation: a perfect hash of the board into [0, PERMUTATIONS)
+    public static int rank(long board) {
+        int rank = 0;
+        int unused = 0x1FF; // bit t set while tile t has not been seen yet
+        for (int i = 0; i < CELLS - 1; i++) {
+            int tile = (int) (board >>> (4 * i)) & 0xF;
+            rank += Integer.bitCount(unused & ((1 << tile) - 1)) * FACTORIALS[i];
+            unused &= ~(1 << tile);
+        }
+        return rank;
+    }
+
+    // Board with the given Lehmer rank; the inverse of rank()
+    public static long unrank(int rank) {
+        int[] tiles = new int[CELLS];
+        int unused = 0x1FF;
+        for (int i = 0; i < CELLS; i++) {
+            tiles[i] = nthTile(unused, rank / FACTORIALS[i]);
+            rank %= FACTORIALS[i];
+            unused &= ~(1 << tiles[i]);
+        }
+        return pack(tiles);
+    }
+
+    /**
+     * Perfect hash of a solvable board into [0, SOLVABLE).
+     *
+     * The index is the blank position times 8!/2 plus half the Lehmer rank of the other eight
+     * tiles. Ranks 2k and 2k+1 differ by swapping the last two tiles, which flips the inversion
+     * parity, so exactly one of each pair is solvable and halving loses nothing.
+     */
+    public static int index(long board) {
+        int blank = (int) (board >>> BLANK_SHIFT) & 0xF;
+        int rank = 0;
+        int unused = 0x1FE; // tiles 1..8
+        int k = 0;
+        for (int i = 0; i < CELLS; i++) {
+            if (i == blank) {
+                continue;
+            }
+            int tile = (int) (board >>> (4 * i)) & 0xF;
+            rank += Integer.bitCount(unused & ((1 << tile) - 1)) * FACTORIALS[++k];
+            unused &= ~(1 << tile);
+        }
+        return blank * (SOLVABLE / CELLS) + (rank >>> 1);
+    }
+
+    // Solvable board with the given index; the inverse of index() on [0, SOLVABLE)
+    public static long unindex(int index) {
+        int blank = index / (SOLVABLE / CELLS);
+        int rank = (index % (SOLVABLE / CELLS)) << 1;
+        // Of the two boards whose other eight tiles rank 2k and 2k+1, exactly one is solvable
+        for (int candidate = rank; candidate <= rank + 1; candidate++) {
+            int[] tiles = new int[CELLS];
+            int unused = 0x1FE;
+            int remaining = candidate;
+            int k = 0;
+            for (int i = 0; i < CELLS; i++) {
+                if (i == blank) {
+                    continue;
+                }
+                k++;
+                tiles[i] = nthTile(unused, remaining / FACTORIALS[k]);
+                remaining %= FACTORIALS[k];
+                unused &= ~(1 << tiles[i]);
+            }
+            long board = pack(tiles);
+            if (Solvability.isSolvable(board)) {
+                return board;
+            }
+        }
+        return NONE;
+    }
+
+    // The n-th smallest tile (counting from 0) whose bit is set in unused
+    private static int nthTile(int unused, int n) {
+        for (int i = 0; i < n; i++) {
+            unused &= unused - 1;
+        }
+        return Integer.numberOfTrailingZeros(unused);
+    }
+
+    // Reflection in the main diagonal. Tile t's goal cell is t, so tiles are relabelled by the same
+    // transposition and the goal maps to itself.
+    public static long mirror(long board) {
+        long mirrored = 0;
+        for (int pos = 0; pos < CELLS; pos++) {
+            int tile = (int) (board >>> (4 * pos)) & 0xF;
+            mirrored |= (long) TRANSPOSED[tile] << (4 * TRANSPOSED[pos]);
+        }
+        return mirrored | ((long) TRANSPOSED[blank(board)] << BLANK_SHIFT);
+    }
+
+    public static boolean isGoal(long board) {
+        return board == GOAL;
+    }
+
+    public static int inverse(int direction) {
+        return direction ^ 1;
+    }
+
+    // Direction index for a move name, or -1 if the name is not recognised
+    public static int direction(String name) {
+        for (int d = 0; d < DIRECTION_NAMES.length; d++) {
+            if (DIRECTION_NAMES[d].equals(name)) {
+                return d;
+            }
+        }
+        return -1;
+    }
+}
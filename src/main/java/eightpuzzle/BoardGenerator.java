@@ -0,0 +1,134 @@
+package eightpuzzle;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes reproducible sets of random solvable 3x3 boards for load tests and benchmarks.
+ *
+ * Boards are drawn either uniformly over all 181,440 solvable boards, by unindexing a random
+ * index, or uniformly among the boards at a given optimal distance, found once with
+ * {@link ParallelBFS}. The stratified mode cycles through every distance from 1 to 31 so that
+ * each difficulty is equally represented. Work is cut into chunks that are generated in
+ * parallel, each with its own {@link SplittableRandom} split from the seed in chunk order, so
+ * the output depends only on the seed and never on thread scheduling.
+ *
+ * Text output has one board per line ("1 2 5 3 4 0 6 7 8"), ready for solveBatch. Binary output
+ * is the {@link Board#index(long)} of each board as a 4-byte big-endian int.
+ */
+final class BoardGenerator {
+
+    private static final int CHUNK = 1 << 14; // boards generated per task
+    private static final int ROUND = 64; // chunks generated before they are written out
+    private static final int TEXT_BYTES = 2 * Board.CELLS; // nine digits, eight spaces and a newline
+
+    private final int[][] strata; // board indexes at each distance, or null for uniform sampling
+    private final int distance; // the only stratum used, or -1 to cycle through all of them
+
+    private BoardGenerator(int[][] strata, int distance) {
+        this.strata = strata;
+        this.distance = distance;
+    }
+
+    /**
+     * Generator for a mode: "uniform", "stratified", or a single optimal distance. Returns null if
+     * the mode is not recognised or no board lies at the distance.
+     */
+    static BoardGenerator create(String mode) {
+        if (mode.equals("uniform")) {
+            return new BoardGenerator(null, -1);
+        }
+        if (mode.equals("stratified")) {
+            return new BoardGenerator(strata(), -1);
+        }
+        int distance;
+        try {
+            distance = Integer.parseInt(mode);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (distance < 0) {
+            return null;
+        }
+        int[][] strata = strata();
+        return distance < strata.length ? new BoardGenerator(strata, distance) : null;
+    }
+
+    // Indexes of all solvable boards grouped by their distance from the goal
+    private static int[][] strata() {
+        byte[] distances = ParallelBFS.distances(Board.GOAL);
+        int[] histogram = ParallelBFS.histogram(distances);
+        int[][] strata = new int[histogram.length][];
+        int[] counts = new int[histogram.length];
+        for (int d = 0; d < histogram.length; d++) {
+            strata[d] = new int[histogram[d]];
+        }
+        for (int index = 0; index < distances.length; index++) {
+            int d = distances[index];
+            strata[d][counts[d]++] = index;
+        }
+        return strata;
+    }
+
+    // Writes count boards drawn with the given seed to file, as text or binary
+    void write(long count, long seed, String file, boolean binary) throws IOException {
+        SplittableRandom root = new SplittableRandom(seed);
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(file)), 1 << 16)) {
+            long written = 0;
+            while (written < count) {
+                List<ForkJoinTask<byte[]>> tasks = new ArrayList<>();
+                for (int c = 0; c < ROUND && written < count; c++) {
+                    int size = (int) Math.min(CHUNK, count - written);
+                    SplittableRandom random = root.split();
+                    long first = written;
+                    tasks.add(ForkJoinPool.commonPool().submit(() -> chunk(random, first, size, binary)));
+                    written += size;
+                }
+                for (ForkJoinTask<byte[]> task : tasks) {
+                    out.write(task.join());
+                }
+            }
+        }
+    }
+
+    // Boards first .. first + size - 1 of the output, encoded
+    private byte[] chunk(SplittableRandom random, long first, int size, boolean binary) {
+        byte[] bytes = new byte[size * (binary ? 4 : TEXT_BYTES)];
+        int at = 0;
+        for (int i = 0; i < size; i++) {
+            int index = next(random, first + i);
+            if (binary) {
+                bytes[at++] = (byte) (index >>> 24);
+                bytes[at++] = (byte) (index >>> 16);
+                bytes[at++] = (byte) (index >>> 8);
+                bytes[at++] = (byte) index;
+            } else {
+                long board = Board.unindex(index);
+                for (int pos = 0; pos < Board.CELLS; pos++) {
+                    bytes[at++] = (byte) ('0' + Board.tileAt(board, pos));
+                    bytes[at++] = (byte) (pos < Board.CELLS - 1 ? ' ' : '\n');
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // Index of board number n of the output
+    private int next(SplittableRandom random, long n) {
+        if (strata == null) {
+            return random.nextInt(Board.SOLVABLE);
+        }
+        // Stratified output skips distance 0, which holds only the goal
+        int d = distance >= 0 ? distance : 1 + (int) (n % (strata.length - 1));
+        int[] stratum = strata[d];
+        return stratum[random.nextInt(stratum.length)];
+    }
+}
@@ -0,0 +1,15 @@
+package eightpuzzle;
+
+/**
+ * Set of packed boards, as the searches keep to mark the boards they have generated.
+ *
+ * {@link StateSet} holds 3x3 boards in a rank-indexed bitset; {@link LongHashSet} holds
+ * boards of any size that packs into a long.
+ */
+interface BoardSet {
+
+    // Adds the board, returning false if it was already present
+    boolean add(long board);
+
+    int size();
+}
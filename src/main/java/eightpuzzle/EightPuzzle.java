@@ -1,46 +1,101 @@
 package eightpuzzle;
 
 import java.util.*;
+import java.util.function.Supplier;
 import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
 public class EightPuzzle {
 
-    private int[][] state;
+    private static final int OUTPUT_BUFFER = 1 << 20; // bytes of output held back by stream()
+    private static final long MAP_WINDOW = 1L << 30; // bytes of a command file mapped at once
+
+    private long state; // packed board, see Board
+    private Geometry geometry = Geometry.of(Board.SIZE); // size of the current board
+    private byte[] tiles; // current board when it is not 3x3, in which case state is unused
+    private SolutionCache cache; // optimal 3x3 solutions seen so far, or null when caching is off
+    private SearchStats stats; // counters from the most recent solve, or null before the first
+    private final Tokens tokens = new Tokens(); // reused to split each command line
+    private PrintStream out = System.out; // where command output goes, see stream()
 
     public EightPuzzle() {
-        this.state = new int[][] {
-                {0, 1, 2},
-                {3, 4, 5},
-                {6, 7, 8}
-        };
+        this.state = Board.GOAL;
+    }
+
+    // A session whose command output goes to out, see SolverServer
+    EightPuzzle(PrintStream out) {
+        this();
+        this.out = out;
     }
 
     public static void main(String args[]) {
         EightPuzzle puzzle = new EightPuzzle(); // Create an instance of EightPuzzle
 
-        if (args.length > 0) {
-            puzzle.cmdfile(args[0]); // Call the instance method on the object
+        // Usage: EightPuzzle --serve <port or unix:path>
+        if (args.length == 2 && args[0].equals("--serve")) {
+            try {
+                SolverServer.open(args[1]).run();
+            } catch (IOException | NumberFormatException e) {
+                System.out.println("Error: unable to listen on " + args[1] + ": " + e.getMessage());
+            }
+            return;
+        }
+
+        // Usage: EightPuzzle [--no-echo] <command file, or - for stdin>
+        boolean echo = !(args.length > 0 && args[0].equals("--no-echo"));
+        int file = echo ? 0 : 1;
+        if (args.length > file) {
+            puzzle.stream(args[file], echo);
         } else {
             System.out.println("Error: No command file provided.");
         }
     }
 
     public void cmd(String command) {
-        String[] tokens = command.split(" ");
-        switch (tokens[0]) {
+        Tokens tokens = this.tokens.reset(command);
+        switch (tokens.get(0)) {
             case "setState":
-                if (tokens.length != 10) {
-                    System.out.println("Error: invalid puzzle state");
+                if (Geometry.forCells(tokens.count() - 1) == null) {
+                    out.println("Error: invalid puzzle state");
                     return;
                 }
-                int[] newState = new int[9];
+                int[] newState = new int[tokens.count() - 1];
                 try {
-                    for (int i = 1; i <= 9; i++) {
-                        newState[i - 1] = Integer.parseInt(tokens[i]);
+                    for (int i = 1; i < tokens.count(); i++) {
+                        newState[i - 1] = tokens.getInt(i);
                     }
                     setState(newState);
                 } catch (NumberFormatException e) {
-                    System.out.println("Error: invalid puzzle state");
+                    out.println("Error: invalid puzzle state");
+                }
+                break;
+
+            case "setSize":
+                if (tokens.count() != 2) {
+                    out.println("Error: invalid command: " + command);
+                    return;
+                }
+                try {
+                    setSize(tokens.getInt(1));
+                } catch (NumberFormatException e) {
+                    out.println("Error: invalid board size");
+                }
+                break;
+
+            case "cacheSize":
+                if (tokens.count() != 2) {
+                    out.println("Error: invalid command: " + command);
+                    return;
+                }
+                try {
+                    setCacheSize(tokens.getInt(1));
+                } catch (NumberFormatException e) {
+                    out.println("Error: invalid cache size");
                 }
                 break;
 
@@ -49,63 +104,183 @@ public class EightPuzzle {
                 break;
 
             case "move":
-                if (tokens.length != 2) {
-                    System.out.println("Error: invalid command: " + command);
+                if (tokens.count() != 2) {
+                    out.println("Error: invalid command: " + command);
                 } else {
-                    move(tokens[1]);
+                    move(tokens.get(1));
                 }
                 break;
 
             case "scrambleState":
-                if (tokens.length != 2) {
-                    System.out.println("Error: invalid command: " + command);
+                if (tokens.count() != 2) {
+                    out.println("Error: invalid command: " + command);
                 } else {
                     try {
-                        int moves = Integer.parseInt(tokens[1]);
+                        int moves = tokens.getInt(1);
                         scrambleState(moves);
                     } catch (NumberFormatException e) {
-                        System.out.println("Error: invalid scramble count");
+                        out.println("Error: invalid scramble count");
                     }
                 }
                 break;
 
             case "solveDFS":
-                if (tokens.length != 2) {
-                    System.out.println("Error: invalid command: " + command);
+                if (tokens.count() != 2) {
+                    out.println("Error: invalid command: " + command);
                     return;
                 }
                 try {
-                    int maxnodes = Integer.parseInt(tokens[1]);
+                    int maxnodes = tokens.getInt(1);
                     solveDFS(maxnodes);
                 } catch (NumberFormatException e) {
-                    System.out.println("Error: invalid maxnodes value");
+                    out.println("Error: invalid maxnodes value");
                 }
                 break;
 
             case "solveBFS":
-                if (tokens.length != 2) {
-                    System.out.println("Error: invalid command: " + command);
+                if (tokens.count() != 2) {
+                    out.println("Error: invalid command: " + command);
                     return;
                 }
                 try {
-                    int maxnodes = Integer.parseInt(tokens[1]);
+                    int maxnodes = tokens.getInt(1);
                     solveBFS(maxnodes);
                 } catch (NumberFormatException e) {
-                    System.out.println("Error: invalid maxnodes value");
+                    out.println("Error: invalid maxnodes value");
+                }
+                break;
+
+            case "solveBiBFS":
+                if (tokens.count() != 2) {
+                    out.println("Error: invalid command: " + command);
+                    return;
+                }
+                try {
+                    int maxnodes = tokens.getInt(1);
+                    solveBiBFS(maxnodes);
+                } catch (NumberFormatException e) {
+                    out.println("Error: invalid maxnodes value");
                 }
                 break;
 
             case "solveAStar":
-                if (tokens.length < 3) {
-                    System.out.println("Error: invalid command: " + command);
+                if (tokens.count() < 3 || tokens.count() > 4) {
+                    out.println("Error: invalid command: " + command);
+                    return;
+                }
+                String heuristic = tokens.get(1);
+                String openList = tokens.count() == 4 ? tokens.get(3) : "bucket";
+                if (OpenList.create(openList) == null) {
+                    out.println("Error: invalid open list: " + openList);
+                    return;
+                }
+                try {
+                    int maxnodes = tokens.getInt(2);
+                    solveAStar(heuristic, maxnodes, openList);
+                } catch (NumberFormatException e) {
+                    out.println("Error: invalid maxnodes value");
+                }
+                break;
+
+            case "solveAnytime":
+                if (tokens.count() != 4) {
+                    out.println("Error: invalid command: " + command);
+                    return;
+                }
+                try {
+                    int maxnodes = tokens.getInt(2);
+                    int millis = tokens.getInt(3);
+                    solveAnytime(tokens.get(1), maxnodes, millis);
+                } catch (NumberFormatException e) {
+                    out.println("Error: invalid maxnodes or time limit");
+                }
+                break;
+
+            case "solveIDAStar":
+                if (tokens.count() != 3) {
+                    out.println("Error: invalid command: " + command);
+                    return;
+                }
+                try {
+                    int maxnodes = tokens.getInt(2);
+                    solveIDAStar(tokens.get(1), maxnodes);
+                } catch (NumberFormatException e) {
+                    out.println("Error: invalid maxnodes value");
+                }
+                break;
+
+            case "buildMoveTable":
+                if (tokens.count() != 1) {
+                    out.println("Error: invalid command: " + command);
+                } else {
+                    buildMoveTable();
+                }
+                break;
+
+            case "solveOracle":
+                if (tokens.count() != 1) {
+                    out.println("Error: invalid command: " + command);
+                } else {
+                    solveOracle();
+                }
+                break;
+
+            case "solveBatch":
+                if (tokens.count() < 4 || tokens.count() > 5) {
+                    out.println("Error: invalid command: " + command);
+                    return;
+                }
+                try {
+                    int maxnodes = tokens.getInt(3);
+                    solveBatch(tokens.get(1), tokens.get(2), maxnodes, tokens.count() == 5 ? tokens.get(4) : null);
+                } catch (NumberFormatException e) {
+                    out.println("Error: invalid maxnodes value");
+                }
+                break;
+
+            case "generateBoards":
+                if (tokens.count() < 5 || tokens.count() > 6) {
+                    out.println("Error: invalid command: " + command);
+                    return;
+                }
+                try {
+                    long count = tokens.getLong(1);
+                    long seed = tokens.getLong(3);
+                    generateBoards(count, tokens.get(2), seed, tokens.get(4), tokens.count() == 6 ? tokens.get(5) : "text");
+                } catch (NumberFormatException e) {
+                    out.println("Error: invalid count or seed");
+                }
+                break;
+
+            case "distanceTable":
+                if (tokens.count() != 1) {
+                    out.println("Error: invalid command: " + command);
+                } else {
+                    distanceTable();
+                }
+                break;
+
+            case "patternDistances":
+                if (tokens.count() < 3) {
+                    out.println("Error: invalid command: " + command);
                     return;
                 }
-                String heuristic = tokens[1];
                 try {
-                    int maxnodes = Integer.parseInt(tokens[2]);
-                    solveAStar(heuristic, maxnodes);
+                    int[] pattern = new int[tokens.count() - 2];
+                    for (int i = 0; i < pattern.length; i++) {
+                        pattern[i] = tokens.getInt(i + 2);
+                    }
+                    patternDistances(tokens.get(1), pattern);
                 } catch (NumberFormatException e) {
-                    System.out.println("Error: invalid maxnodes value");
+                    out.println("Error: invalid pattern tile");
+                }
+                break;
+
+            case "printStats":
+                if (tokens.count() != 1) {
+                    out.println("Error: invalid command: " + command);
+                } else {
+                    printStats();
                 }
                 break;
 
@@ -115,27 +290,29 @@ public class EightPuzzle {
                 break;
 
             default:
-                System.out.println("Error: invalid command: " + command);
+                out.println("Error: invalid command: " + command);
         }
     }
 
 
     public void setState(int[] newState) {
-        int[] digitCounts = new int[9];
+        Geometry shape = Geometry.forCells(newState.length);
+        int cells = newState.length;
+        int[] digitCounts = new int[cells];
         boolean isValid = true;
 
-        // Invalid if not nine digits total
-        if (newState.length != 9) {
-            isValid = false;
-            System.out.println("Error: invalid puzzle state");
+        // Invalid unless the digits fill a supported square board: 9 for the 8-puzzle, 16, 25, ...
+        if (shape == null) {
+            out.println("Error: invalid puzzle state");
+            return;
         }
 
-        // Invalid if a digit is not between 0 and 8, or if a digit occurs more than once
-        for (int i = 0; i < 9; i++) {
+        // Invalid if a digit is not between 0 and cells - 1, or if a digit occurs more than once
+        for (int i = 0; i < cells; i++) {
             int value = newState[i];
-            if (value < 0 || value > 8) {
+            if (value < 0 || value > cells - 1) {
                 isValid = false;
-                System.out.println("Error: invalid puzzle state");
+                out.println("Error: invalid puzzle state");
                 break;
             }
             digitCounts[value]++;
@@ -143,361 +320,497 @@ public class EightPuzzle {
         for (int count : digitCounts) {
             if (count != 1) {
                 isValid = false;
-                System.out.println("Error: invalid puzzle state");
+                out.println("Error: invalid puzzle state");
                 break;
             }
         }
 
-        // Set state
+        // Set state, unless the goal cannot be reached from it (wrong permutation parity)
         if (isValid) {
-            for (int i = 0; i < 9; i++) {
-                this.state[i / 3][i % 3] = newState[i];
+            byte[] board = new byte[cells];
+            for (int i = 0; i < cells; i++) {
+                board[i] = (byte) newState[i];
+            }
+            if (!Solvability.isSolvable(board, shape.size)) {
+                out.println("Error: unsolvable puzzle state");
+                return;
+            }
+            geometry = shape;
+            if (cells == Board.CELLS) {
+                this.state = Board.pack(newState);
+            } else {
+                this.tiles = board;
             }
         }
     }
 
+    // Switch to an N x N board in its goal state
+    public void setSize(int size) {
+        Geometry shape = Geometry.of(size);
+        if (shape == null) {
+            out.println("Error: invalid board size");
+            return;
+        }
+        geometry = shape;
+        if (size == Board.SIZE) {
+            state = Board.GOAL;
+        } else {
+            tiles = shape.goalTiles();
+        }
+    }
+
     public void printState() {
+        if (isGrid()) {
+            // Pad every tile to the width of the largest so columns line up on 4x4 and 5x5 boards
+            String format = "%" + String.valueOf(geometry.cells - 1).length() + "d ";
+            String blank = String.format(format, 0).replaceAll(".", " ");
+            for (int j = 0; j < geometry.size; j++) {
+                for (int k = 0; k < geometry.size; k++) {
+                    int tile = tiles[j * geometry.size + k];
+                    out.print(tile == 0 ? blank : String.format(format, tile));
+                }
+                out.println();
+            }
+            return;
+        }
+        // Each row is written in one call: a digit and a space per tile, two spaces for the blank
+        char[] row = new char[2 * Board.SIZE];
         for (int j = 0; j < 3; j++) {
             for (int k = 0; k < 3; k++) {
-                if (state[j][k] == 0) {
-                    System.out.print("  "); // Use space for blank tile
-                } else {
-                    System.out.print(state[j][k] + " ");
-                }
+                int tile = Board.tileAt(state, j * 3 + k);
+                row[2 * k] = tile == 0 ? ' ' : (char) ('0' + tile);
+                row[2 * k + 1] = ' ';
             }
-            System.out.println();
+            out.println(row);
         }
     }
 
-    private int[] findBlankTile(int[][] currState) {
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (currState[i][j] == 0) {
-                    return new int[] { i, j }; // Return row and column
-                }
+    public void move(String direction) {
+        int dir = Board.direction(direction);
+        if (isGrid()) {
+            int blank = Geometry.blank(tiles);
+            int target = dir < 0 ? -1 : geometry.neighbours[blank][dir];
+            if (target < 0) {
+                out.println("Error: Invalid move");
+            } else {
+                slide(tiles, blank, target);
             }
+            return;
+        }
+        long next = dir < 0 ? Board.NONE : Board.move(state, dir);
+        if (next == Board.NONE) {
+            out.println("Error: Invalid move");
+        } else {
+            state = next;
         }
-        return null;
     }
 
-    public void move(String direction) {
-        int[] blankPos = findBlankTile(this.state);
-        int row = blankPos[0];
-        int col = blankPos[1];
-
-        switch (direction) {
-            case "up":
-                if (row == 0) {
-                    System.out.println("Error: Invalid move");
-                } else {
-                    state[row][col] = state[row - 1][col];
-                    state[row - 1][col] = 0;
-                }
-                break;
-
-            case "down":
-                if (row == 2) {
-                    System.out.println("Error: Invalid move");
-                } else {
-                    state[row][col] = state[row + 1][col];
-                    state[row + 1][col] = 0;
+    public void scrambleState(int n) {
+        Random rand = new Random(123); // Fixed seed for reproducibility
+        int[] validMoves = new int[4];
+        if (isGrid()) {
+            tiles = geometry.goalTiles();
+            for (int i = 0; i < n; i++) {
+                int[] targets = geometry.neighbours[Geometry.blank(tiles)];
+                int count = 0;
+                for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                    if (targets[dir] >= 0)
+                        validMoves[count++] = targets[dir];
                 }
-                break;
+                slide(tiles, Geometry.blank(tiles), validMoves[rand.nextInt(count)]);
+            }
+            return;
+        }
+        this.setState(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 }); // Set to goal state
+        for (int i = 0; i < n; i++) {
+            int blank = Board.blank(state);
+            int count = 0;
+            for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                if (Board.target(blank, dir) >= 0)
+                    validMoves[count++] = dir;
+            }
+            state = Board.move(state, validMoves[rand.nextInt(count)]);
+        }
+    }
 
-            case "left":
-                if (col == 0) {
-                    System.out.println("Error: Invalid move");
-                } else {
-                    state[row][col] = state[row][col - 1];
-                    state[row][col - 1] = 0;
-                }
-                break;
+    // Whether the current board is some size other than 3x3 and lives in tiles rather than state
+    private boolean isGrid() {
+        return geometry.size != Board.SIZE;
+    }
 
-            case "right":
-                if (col == 2) {
-                    System.out.println("Error: Invalid move");
-                } else {
-                    state[row][col] = state[row][col + 1];
-                    state[row][col + 1] = 0;
-                }
-                break;
+    // Move the tile at target into the blank at position blank
+    private static void slide(byte[] tiles, int blank, int target) {
+        tiles[blank] = tiles[target];
+        tiles[target] = 0;
+    }
 
-            default:
-                System.out.println("Error: Invalid move");
+    // Report an error and return false if command only supports 3x3 boards and the board is another size
+    private boolean requireEightPuzzle(String command) {
+        if (isGrid()) {
+            out.println("Error: " + command + " is only available for 3x3 boards");
+            return false;
         }
+        return true;
     }
 
-    public void scrambleState(int n) {
-        this.setState(new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8 }); // Set to goal state
-        Random rand = new Random(123); // Fixed seed for reproducibility
-        for (int i = 0; i < n; i++) {
-            int[] blankPos = findBlankTile(this.state);
-            int row = blankPos[0];
-            int col = blankPos[1];
-            List<String> validMoves = new ArrayList<>();
-            if (row > 0)
-                validMoves.add("up");
-            if (row < 2)
-                validMoves.add("down");
-            if (col > 0)
-                validMoves.add("left");
-            if (col < 2)
-                validMoves.add("right");
-            move(validMoves.get(rand.nextInt(validMoves.size())));
+    // Report an error and return false if the current board is too large to pack into a long
+    private boolean requirePackable(String command) {
+        if (!geometry.packable()) {
+            out.println("Error: " + command + " supports boards up to 4x4; use solveIDAStar");
+            return false;
         }
+        return true;
     }
 
     public void cmdfile(String filename) {
         try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
             String line;
             while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty())
-                    continue;
-                System.out.println(line);
-                if (!line.startsWith("#") && !line.startsWith("//")) {
-                    cmd(line);
-                }
+                processLine(line, true);
             }
         } catch (IOException e) {
-            System.out.println("Error: unable to read file " + filename);
+            out.println("Error: unable to read file " + filename);
             e.printStackTrace();
         }
     }
 
-    public void solveDFS(int maxnodes) {
-        int nodesCreated = 0;
-        Stack<SearchNode> stack = new Stack<>();
-        SearchNode rootNode = new SearchNode(copyState(state), new ArrayList<>());
-        stack.push(rootNode);
-        nodesCreated++;
-
-        Set<String> visited = new HashSet<>(); // Track visited states
-        visited.add(serializeState(rootNode.state));
-
-        while (!stack.isEmpty()) {
-            if (nodesCreated > maxnodes) {
-                System.out.println("Error: maxnodes limit (" + maxnodes + ") reached");
-                return;
-            }
-            SearchNode currentNode = stack.pop();
-            if (isGoalState(currentNode.state)) {
-                System.out.println("Nodes created during search: " + nodesCreated);
-                System.out.println("Solution length: " + currentNode.moves.size());
-                for (String move : currentNode.moves) {
-                    System.out.println(move);
+    /**
+     * Runs a command file, or stdin when source is "-", for long replays. Output goes through one
+     * large buffer that is written out when full and at the end, rather than line by line; when
+     * reading stdin it is also flushed whenever no further input is waiting. Files are
+     * memory-mapped and split into lines straight from the mapping. With echo off, commands and
+     * comments are not copied to the output.
+     */
+    public void stream(String source, boolean echo) {
+        PrintStream console = out;
+        out = new PrintStream(new BufferedOutputStream(console, OUTPUT_BUFFER), false);
+        try {
+            if (source.equals("-")) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(System.in), 1 << 16);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    processLine(line, echo);
+                    if (!reader.ready()) {
+                        out.flush();
+                    }
                 }
-                return;
+            } else {
+                streamMapped(source, echo);
             }
-            for (String move : new String[] { "up", "down", "left", "right" }) {
-                int[][] newState = copyState(currentNode.state);
-                EightPuzzle tempPuzzle = new EightPuzzle();
-                tempPuzzle.state = newState;
-                tempPuzzle.move(move);
-                String serializedNewState = serializeState(tempPuzzle.state);
-                if (!visited.contains(serializedNewState)) { // Check if state has been visited
-                    visited.add(serializedNewState); // Mark new state as visited
-                    List<String> newMoves = new ArrayList<>(currentNode.moves);
-                    newMoves.add(move);
-                    SearchNode newNode = new SearchNode(copyState(tempPuzzle.state), newMoves);
-                    stack.push(newNode);
-                    nodesCreated++;
+        } catch (IOException e) {
+            out.println("Error: unable to read file " + source);
+        } finally {
+            out.flush();
+            out = console;
+        }
+    }
+
+    private void streamMapped(String filename, boolean echo) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Decoded as stdin and cmdfile are; '\n' never occurs inside a multi-byte UTF-8 character
+            Charset charset = Charset.defaultCharset();
+            byte[] line = new byte[256];
+            int length = 0;
+            // Files over 2 GB are mapped a window at a time; a line cut by a window boundary carries over in line
+            for (long position = 0; position < size; position += MAP_WINDOW) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW, size - position));
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b == '\n') {
+                        processLine(new String(line, 0, length, charset), echo);
+                        length = 0;
+                    } else {
+                        if (length == line.length) {
+                            line = Arrays.copyOf(line, length * 2);
+                        }
+                        line[length++] = b;
+                    }
                 }
             }
+            if (length > 0) {
+                processLine(new String(line, 0, length, charset), echo);
+            }
         }
-        System.out.println("Error: no solution found");
     }
 
-    private String serializeState(int[][] state) {
-        StringBuilder sb = new StringBuilder();
-        for (int[] row : state) {
-            for (int val : row) {
-                sb.append(val);
-            }
+    // Runs one line of a command file: blank lines are skipped, comments are only echoed
+    private void processLine(String line, boolean echo) {
+        line = line.trim();
+        if (line.isEmpty()) {
+            return;
         }
-        return sb.toString();
+        if (echo) {
+            out.println(line);
+        }
+        if (!line.startsWith("#") && !line.startsWith("//")) {
+            cmd(line);
+        }
+    }
+
+    public void solveDFS(int maxnodes) {
+        if (isGrid() && !requirePackable("solveDFS")) {
+            return;
+        }
+        // DFS paths are far from shortest, so they bypass the solution cache
+        Solver dfs = Solver.dfs(geometry.size, maxnodes);
+        printResult(isGrid() ? dfs.solve(tiles) : dfs.solve(state), maxnodes, "", "Error: no solution found");
     }
 
     public void solveBFS(int maxnodes) {
-        int nodesCreated = 0;
-        Queue<SearchNode> queue = new LinkedList<>();
-        SearchNode rootNode = new SearchNode(copyState(state), new ArrayList<>());
-        queue.add(rootNode);
-        nodesCreated++;
-        while (!queue.isEmpty()) {
-            if (nodesCreated > maxnodes) {
-                System.out.println("Error: maxnodes limit (" + maxnodes + ") reached");
-                return;
-            }
-            SearchNode currentNode = queue.poll();
-            if (isGoalState(currentNode.state)) {
-                System.out.println("Nodes created during search: " + nodesCreated);
-                System.out.println("Solution length: " + currentNode.moves.size());
-                for (String move : currentNode.moves) {
-                    System.out.println(move);
-                }
-                return;
-            }
-            List<String> possibleMoves = Arrays.asList("left", "right", "up", "down");
-            for (String move : possibleMoves) {
-                int[][] newState = applyMove(currentNode.state, move);
-                if (newState != null) {
-                    List<String> newMoves = new ArrayList<>(currentNode.moves);
-                    newMoves.add("move " + move);
-                    queue.add(new SearchNode(newState, newMoves));
-                    nodesCreated++;
-                }
-            }
+        if (isGrid() && !requirePackable("solveBFS")) {
+            return;
+        }
+        printResult(solve(Solver.bfs(geometry.size, maxnodes)), maxnodes, "move ", "No solution found");
+    }
+
+    public void solveBiBFS(int maxnodes) {
+        if (!requireEightPuzzle("solveBiBFS")) {
+            return;
         }
-        System.out.println("No solution found");
+        printResult(solve(Solver.biBFS(maxnodes)), maxnodes, "move ", "No solution found");
     }
 
     public void solveAStar(String heuristic, int maxnodes) {
-        int nodesCreated = 0;
-        PriorityQueue<SearchNode> pq = new PriorityQueue<>(Comparator.comparingInt(n -> n.cost));
-        SearchNode rootNode = new SearchNode(copyState(state), new ArrayList<>()/*, 0*/);
-        pq.add(rootNode);
-        nodesCreated++;
-        Set<String> visited = new HashSet<>();
-        visited.add(serializeState(rootNode.state));
-
-        while (!pq.isEmpty()) {
-            if (nodesCreated > maxnodes) {
-                System.out.println("Error: maxnodes limit (" + maxnodes + ") reached");
-                return;
-            }
-            SearchNode currentNode = pq.poll();
-            if (isGoalState(currentNode.state)) {
-                System.out.println("Nodes created during search: " + nodesCreated);
-                System.out.println("Solution length: " + currentNode.moves.size());
-                for (String move : currentNode.moves) {
-                    System.out.println(move);
-                }
-                return;
-            }
-            List<String> possibleMoves = Arrays.asList("left", "right", "up", "down");
-            for (String move : possibleMoves) {
-                int[][] newState = applyMove(currentNode.state, move);
-                if (newState != null && !visited.contains(serializeState(newState))) {
-                    List<String> newMoves = new ArrayList<>(currentNode.moves);
-                    newMoves.add("move " + move);
-                    int g = currentNode.g + 1; // Cost from start
-                    int h = heuristic.equals("h1") ? misplacedTiles(newState) : manhattanDistance(newState);
-                    int f = g + h; // Total cost
-                    pq.add(new SearchNode(newState, newMoves, f, g));
-                    nodesCreated++;
-                    visited.add(serializeState(newState));
-                }
-            }
+        solveAStar(heuristic, maxnodes, "bucket");
+    }
+
+    public void solveAStar(String heuristic, int maxnodes, String openList) {
+        if (isGrid() && (heuristic.equals("h3") || heuristic.equals("h4"))) {
+            requireEightPuzzle("heuristic " + heuristic);
+            return;
         }
-        System.out.println("No solution found");
+        if (isGrid() && !requirePackable("solveAStar")) {
+            return;
+        }
+        printResult(solve(Solver.aStar(geometry.size, heuristic, maxnodes, openList)), maxnodes, "move ",
+                "No solution found");
     }
 
-    // Helper method to check if a given state is the goal state
-    private boolean isGoalState(int[][] state) {
-        int[][] goalState = {
-                {0, 1, 2},
-                {3, 4, 5},
-                {6, 7, 8}
-        };
-        return Arrays.deepEquals(state, goalState);
+    // Weighted A* passes with decreasing weight, printing the best path found within the node and time budgets
+    public void solveAnytime(String heuristic, int maxnodes, int millis) {
+        if (isGrid() && (heuristic.equals("h3") || heuristic.equals("h4"))) {
+            requireEightPuzzle("heuristic " + heuristic);
+            return;
+        }
+        if (isGrid() && !requirePackable("solveAnytime")) {
+            return;
+        }
+        SearchResult result = solve(Solver.anytime(geometry.size, heuristic, maxnodes, millis));
+        if (result.timedOut && result.status == SearchResult.Status.MAXNODES) {
+            stats = result.stats;
+            out.println("Error: time limit (" + millis + " ms) reached");
+            return;
+        }
+        printResult(result, maxnodes, "move ", "No solution found");
+        if (result.status == SearchResult.Status.SOLVED) {
+            out.printf("Suboptimality bound: %.2f%n", result.bound);
+        }
     }
 
-    // Helper method to copy the current state
-    private int[][] copyState(int[][] state) {
-        int[][] newState = new int[3][3];
-        for (int i = 0; i < 3; i++) {
-            System.arraycopy(state[i], 0, newState[i], 0, 3);
+    public void solveIDAStar(String heuristic, int maxnodes) {
+        if (isGrid() && (heuristic.equals("h3") || heuristic.equals("h4"))) {
+            requireEightPuzzle("heuristic " + heuristic);
+            return;
         }
-        return newState;
+        printResult(solve(Solver.idaStar(geometry.size, heuristic, maxnodes)), maxnodes, "move ", "No solution found");
     }
 
-    /*
-    // Helper method to serialize state for hashing
-    private String serializeState(int[][] state) {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                sb.append(state[i][j]);
-            }
+    // Regenerates the optimal-move table from the goal distances and writes it to its file
+    public void buildMoveTable() {
+        Path path = MoveOracle.path();
+        try {
+            MoveOracle.write(path, MoveOracle.build());
+            out.println("Move table written to " + path + ": " + Board.SOLVABLE + " boards");
+        } catch (IOException e) {
+            out.println("Error: unable to write file " + path);
         }
-        return sb.toString();
     }
-     */
 
-    // Heuristic 1: Number of misplaced tiles
-    private int misplacedTiles(int[][] state) {
-        int misplaced = 0;
-        int[][] goalState = {
-                {0, 1, 2},
-                {3, 4, 5},
-                {6, 7, 8}
-        };
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (state[i][j] != 0 && state[i][j] != goalState[i][j]) {
-                    misplaced++;
-                }
-            }
+    // Reads an optimal solution off the move table, loading or building the table on first use
+    public void solveOracle() {
+        if (!requireEightPuzzle("solveOracle")) {
+            return;
         }
-        return misplaced;
+        printResult(Solver.oracle().solve(state), 0, "move ", "No solution found");
     }
 
-    // Heuristic 2: Manhattan distance
-    private int manhattanDistance(int[][] state) {
-        int distance = 0;
-        int[][] goalPositions = {
-                {0, 1}, {0, 2}, {0, 0}, // positions for tiles 1, 2, 0
-                {1, 0}, {1, 1}, {1, 2}, // positions for tiles 3, 4, 5
-                {2, 0}, {2, 1}, {2, 2}  // positions for tiles 6, 7, 8
-        };
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                int tile = state[i][j];
-                if (tile != 0) {
-                    int goalRow = goalPositions[tile][0];
-                    int goalCol = goalPositions[tile][1];
-                    distance += Math.abs(i - goalRow) + Math.abs(j - goalCol);
-                }
+    // Runs a solver on the current board; 3x3 boards go through the solution cache
+    private SearchResult solve(Solver solver) {
+        if (isGrid()) {
+            return solver.solve(tiles);
+        }
+        return solveCached(solver.optimal(), () -> solver.solve(state));
+    }
+
+    // Keep up to size optimal 3x3 solutions (and their suffixes) in memory; 0 turns the cache off
+    public void setCacheSize(int size) {
+        if (size < 0 || size > SolutionCache.MAX_CAPACITY) {
+            out.println("Error: invalid cache size");
+            return;
+        }
+        cache = size == 0 ? null : new SolutionCache(size);
+    }
+
+    // Answer from the solution cache when possible; otherwise search, caching the path if it is optimal
+    private SearchResult solveCached(boolean optimal, Supplier<SearchResult> search) {
+        byte[] path = cache == null ? null : cache.get(state);
+        if (path != null) {
+            // Only optimal paths are cached
+            return SearchResult.solved(new SearchStats("cache"), 0, path).withBound(1, false);
+        }
+        SearchResult result = search.get();
+        if (cache != null && optimal && result.status == SearchResult.Status.SOLVED) {
+            cache.put(state, result.path);
+        }
+        return result;
+    }
+
+    // Writes count random solvable 3x3 boards (uniform, stratified by distance, or at one distance) to a file
+    public void generateBoards(long count, String mode, long seed, String file, String format) {
+        if (count < 0) {
+            out.println("Error: invalid count or seed");
+            return;
+        }
+        if (!format.equals("text") && !format.equals("binary")) {
+            out.println("Error: invalid output format: " + format);
+            return;
+        }
+        BoardGenerator generator = BoardGenerator.create(mode);
+        if (generator == null) {
+            out.println("Error: invalid generator mode: " + mode);
+            return;
+        }
+        try {
+            generator.write(count, seed, file, format.equals("binary"));
+            out.println("Boards written: " + count);
+        } catch (IOException e) {
+            out.println("Error: unable to write file " + file);
+        }
+    }
+
+    // Prints how many boards lie at each distance from the current state, found by a parallel BFS
+    public void distanceTable() {
+        if (!requireEightPuzzle("distanceTable")) {
+            return;
+        }
+        int[] histogram = ParallelBFS.histogram(ParallelBFS.distances(state));
+        int reached = 0;
+        for (int d = 0; d < histogram.length; d++) {
+            out.println("Distance " + d + ": " + histogram[d]);
+            reached += histogram[d];
+        }
+        out.println("States reached: " + reached);
+    }
+
+    // Prints how many abstract states lie at each distance from the current state when only the
+    // pattern tiles are told apart, using a breadth-first search whose layers are kept in dir
+    public void patternDistances(String dir, int[] pattern) {
+        if (!requirePackable("patternDistances")) {
+            return;
+        }
+        int runEntries = Integer.getInteger("eightpuzzle.runEntries", ExternalBFS.DEFAULT_RUN_ENTRIES);
+        ExternalBFS search = ExternalBFS.create(geometry, pattern, Paths.get(dir), runEntries);
+        if (search == null) {
+            out.println("Error: invalid pattern tile");
+            return;
+        }
+        byte[] board = tiles;
+        if (!isGrid()) {
+            board = new byte[Board.CELLS];
+            for (int pos = 0; pos < Board.CELLS; pos++) {
+                board[pos] = (byte) Board.tileAt(state, pos);
             }
         }
-        return distance;
-    }
-
-    // Apply move on state and return new state or null if invalid
-    private int[][] applyMove(int[][] state, String move) {
-        int[][] newState = copyState(state);
-        int[] blankPos = findBlankTile(newState);
-        int row = blankPos[0];
-        int col = blankPos[1];
-        switch (move) {
-            case "up":
-                if (row == 0)
-                    return null;
-                newState[row][col] = newState[row - 1][col];
-                newState[row - 1][col] = 0;
-                break;
-            case "down":
-                if (row == 2)
-                    return null;
-                newState[row][col] = newState[row + 1][col];
-                newState[row + 1][col] = 0;
+        long[] counts;
+        try {
+            counts = search.distances(board);
+        } catch (IOException e) {
+            out.println("Error: unable to use directory " + dir + ": " + e.getMessage());
+            return;
+        }
+        long reached = 0;
+        for (int d = 0; d < counts.length; d++) {
+            out.println("Distance " + d + ": " + counts[d]);
+            reached += counts[d];
+        }
+        out.println("States reached: " + reached);
+    }
+
+    // Prints the counters of the most recent solve
+    public void printStats() {
+        if (stats == null) {
+            out.println("Error: no search has been run");
+            return;
+        }
+        out.println("Algorithm: " + stats.algorithm());
+        out.println("Nodes generated: " + stats.nodesGenerated());
+        out.println("Nodes expanded: " + stats.nodesExpanded());
+        out.println("Duplicates pruned: " + stats.duplicatesPruned());
+        out.println("Peak open list size: " + stats.peakOpenSize());
+        out.println("Peak visited set size: " + stats.peakVisitedSize());
+        out.println("Elapsed: " + stats.elapsedNanos() / 1000 + " us");
+        out.printf("Nodes per second: %.0f%n", stats.nodesPerSecond());
+        out.printf("Effective branching factor: %.3f%n", stats.effectiveBranchingFactor());
+    }
+
+    // Solves every board listed in input in parallel, writing results in input order to output (or stdout)
+    public void solveBatch(String input, String algorithm, int maxnodes, String output) {
+        Solver search = Solver.named(algorithm, Board.SIZE, maxnodes);
+        if (search == null) {
+            out.println("Error: invalid search method: " + algorithm);
+            return;
+        }
+        try {
+            int solved = BatchSolver.run(input, search, output, out);
+            out.println("Boards processed: " + solved);
+        } catch (BatchSolver.OutputException e) {
+            out.println("Error: unable to write file " + output);
+        } catch (IOException e) {
+            out.println("Error: unable to read file " + input);
+        }
+    }
+
+    // The search methods below only read their arguments, so any number of them can run concurrently
+
+    // Print the node count and solution moves (each prefixed as the solver expects), or why there are none
+    private void printResult(SearchResult result, int maxnodes, String prefix, String noSolution) {
+        stats = result.stats;
+        switch (result.status) {
+            case SOLVED:
+                out.println("Nodes created during search: " + result.nodesCreated);
+                out.println("Solution length: " + result.path.length);
+                for (byte move : result.path) {
+                    out.println(prefix + Board.DIRECTION_NAMES[move]);
+                }
                 break;
-            case "left":
-                if (col == 0)
-                    return null;
-                newState[row][col] = newState[row][col - 1];
-                newState[row][col - 1] = 0;
+            case MAXNODES:
+                out.println("Error: maxnodes limit (" + maxnodes + ") reached");
                 break;
-            case "right":
-                if (col == 2)
-                    return null;
-                newState[row][col] = newState[row][col + 1];
-                newState[row][col + 1] = 0;
+            case UNSOLVABLE:
+                out.println("Error: unsolvable puzzle state");
                 break;
+            default:
+                out.println(noSolution);
+        }
+        if (result.message != null) {
+            out.println(result.message);
+        }
+    }
+
+    /*
+    // Helper method to serialize state for hashing
+    private String serializeState(int[][] state) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 3; j++) {
+                sb.append(state[i][j]);
+            }
         }
-        return newState;
+        return sb.toString();
     }
+     */
 
     public static double calculateBranchingFactor(int totalNodes, int depth) {
         double epsilon = 0.0001;  // Threshold for convergence
@@ -505,7 +818,9 @@ public class EightPuzzle {
         double high = totalNodes;
         double bStar = (low + high) / 2;
 
-        while (true) {
+        // Bisection halves the interval each step, so 200 steps exhaust double precision even when
+        // the estimate can never come within epsilon of totalNodes
+        for (int i = 0; i < 200 && high - low > 1e-12; i++) {
             double estimatedNodes = calculateTotalNodes(bStar, depth);
             if (Math.abs(estimatedNodes - totalNodes) < epsilon) {
                 break;
@@ -528,25 +843,6 @@ public class EightPuzzle {
         return totalNodes;
     }
 
-    // Inner class to represent a search node
-    private static class SearchNode {
-        int[][] state;
-        List<String> moves;
-        int cost; // For A* f = g + h
-        int g; // Cost from start
-
-        SearchNode(int[][] state, List<String> moves) {
-            this.state = state;
-            this.moves = moves;
-        }
-
-        SearchNode(int[][] state, List<String> moves, int cost, int g) {
-            this.state = state;
-            this.moves = moves;
-            this.cost = cost;
-            this.g = g;
-        }
-    }
 /*
     public void printSearchComparisonTable() {
         // Array to hold different depths
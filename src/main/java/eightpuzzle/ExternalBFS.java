@@ -0,0 +1,349 @@
+package eightpuzzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Breadth-first search over a pattern abstraction of boards up to 4x4, with its layers on disk.
+ *
+ * A pattern keeps the blank and a chosen set of tiles and makes every other tile the same
+ * "don't care" tile, so many boards share one abstract state. The abstract states of the
+ * 15-puzzle run to hundreds of millions, too many to hold on the heap, so each layer lives in a
+ * file of sorted packed codes (see {@link Geometry#pack(byte[])}) that is read back through
+ * memory maps.
+ *
+ * Duplicates are detected late: the successors of layer d are collected in memory until a
+ * buffer fills, then sorted, deduplicated and written out as a run. The runs are merged in one
+ * streaming pass that also drops every code found in layers d and d-1. Moves are reversible,
+ * so a successor of layer d can lie nowhere else, and older layers can be deleted.
+ *
+ * After each layer a checkpoint records the layer counts so far, and an interrupted search
+ * picks up from the last complete layer when run again with the same directory. A finished
+ * search keeps only its checkpoint, from which the distances are read back directly.
+ */
+final class ExternalBFS {
+
+    // Successor codes sorted in memory per run, overridable with -Deightpuzzle.runEntries=<n>
+    static final int DEFAULT_RUN_ENTRIES = 1 << 22;
+
+    private static final int MAGIC = 0x58424653; // "XBFS"
+    private static final long WINDOW = 1L << 24; // bytes of a layer or run mapped at once
+    private static final int WRITE_BUFFER = 1 << 20;
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Geometry geometry;
+    private final int pattern; // bit t set for each tile t kept by the abstraction
+    private final int marker; // tile that stands for every tile outside the pattern
+    private final Path dir;
+    private final int runEntries;
+
+    private ExternalBFS(Geometry geometry, int pattern, int marker, Path dir, int runEntries) {
+        this.geometry = geometry;
+        this.pattern = pattern;
+        this.marker = marker;
+        this.dir = dir;
+        this.runEntries = runEntries;
+    }
+
+    /**
+     * Search keeping the given tiles, with its files in dir. Returns null if the board does not
+     * pack into a long, or a tile is out of range or listed twice.
+     */
+    static ExternalBFS create(Geometry geometry, int[] tiles, Path dir, int runEntries) {
+        if (!geometry.packable() || tiles.length == 0 || runEntries < 1) {
+            return null;
+        }
+        int pattern = 0;
+        for (int tile : tiles) {
+            if (tile < 1 || tile >= geometry.cells || (pattern & (1 << tile)) != 0) {
+                return null;
+            }
+            pattern |= 1 << tile;
+        }
+        // The lowest tile left out of the pattern is free to stand for all of them
+        int marker = Integer.numberOfTrailingZeros(~pattern & ~1);
+        return new ExternalBFS(geometry, pattern, marker, dir, runEntries);
+    }
+
+    // Packed abstract state of a board: pattern tiles and the blank kept, the rest replaced by the marker
+    long abstraction(byte[] tiles) {
+        byte[] abstracted = new byte[geometry.cells];
+        for (int pos = 0; pos < tiles.length; pos++) {
+            int tile = tiles[pos];
+            abstracted[pos] = (byte) (tile == 0 || (pattern & (1 << tile)) != 0 ? tile : marker);
+        }
+        return geometry.pack(abstracted);
+    }
+
+    /**
+     * Number of abstract states at each distance from the abstraction of root, resuming from the
+     * checkpoint in the directory if it belongs to the same search.
+     */
+    long[] distances(byte[] root) throws IOException {
+        long start = abstraction(root);
+        Files.createDirectories(dir);
+        // Runs left by an interrupted merge are never read again
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(dir, "run-*.bin")) {
+            for (Path path : stale) {
+                Files.delete(path);
+            }
+        }
+        long[] counts = resume(start);
+        int depth;
+        if (counts == null) {
+            try (LongWriter writer = new LongWriter(layer(0))) {
+                writer.put(start);
+            }
+            counts = new long[] { 1 };
+            depth = 0;
+            checkpoint(start, counts, false);
+        } else if (counts[counts.length - 1] == 0) {
+            return Arrays.copyOf(counts, counts.length - 1);
+        } else {
+            depth = counts.length - 1;
+        }
+
+        while (true) {
+            long next = expand(depth);
+            counts = Arrays.copyOf(counts, depth + 2);
+            counts[depth + 1] = next;
+            boolean done = next == 0;
+            checkpoint(start, counts, done);
+            Files.deleteIfExists(layer(depth - 1));
+            if (done) {
+                Files.deleteIfExists(layer(depth));
+                Files.deleteIfExists(layer(depth + 1));
+                return Arrays.copyOf(counts, depth + 1);
+            }
+            depth++;
+        }
+    }
+
+    // Writes layer depth + 1 from the successors of layer depth, returning its size
+    private long expand(int depth) throws IOException {
+        int runs = 0;
+        long[] buffer = new long[runEntries];
+        int n = 0;
+        try (LongReader frontier = new LongReader(layer(depth))) {
+            while (frontier.hasNext()) {
+                long code = frontier.next();
+                for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                    long child = geometry.move(code, dir);
+                    if (child == Board.NONE) {
+                        continue;
+                    }
+                    if (n == buffer.length) {
+                        writeRun(run(runs++), buffer, n);
+                        n = 0;
+                    }
+                    buffer[n++] = child;
+                }
+            }
+        }
+        writeRun(run(runs++), buffer, n);
+        buffer = null;
+
+        LongReader[] readers = new LongReader[runs];
+        try (LongReader current = new LongReader(layer(depth));
+                LongReader previous = depth > 0 ? new LongReader(layer(depth - 1)) : null;
+                LongWriter writer = new LongWriter(layer(depth + 1))) {
+            // Runs ordered by their next code, so the smallest head is found in O(log runs)
+            PriorityQueue<LongReader> heads = new PriorityQueue<>(Math.max(1, runs),
+                    Comparator.comparingLong(LongReader::peek));
+            for (int i = 0; i < runs; i++) {
+                readers[i] = new LongReader(run(i));
+                if (readers[i].hasNext()) {
+                    heads.add(readers[i]);
+                }
+            }
+            long last = 0;
+            boolean first = true;
+            while (!heads.isEmpty()) {
+                LongReader min = heads.poll();
+                long code = min.next();
+                if (min.hasNext()) {
+                    heads.add(min);
+                }
+                if (!first && code == last) {
+                    continue;
+                }
+                first = false;
+                last = code;
+                if (!current.skipTo(code) && (previous == null || !previous.skipTo(code))) {
+                    writer.put(code);
+                }
+            }
+            writer.force();
+            return writer.count();
+        } finally {
+            for (int i = 0; i < runs; i++) {
+                if (readers[i] != null) {
+                    readers[i].close();
+                }
+                Files.deleteIfExists(run(i));
+            }
+        }
+    }
+
+    // Sorts buffer[0, n), drops repeats and writes what is left to path
+    private static void writeRun(Path path, long[] buffer, int n) throws IOException {
+        Arrays.parallelSort(buffer, 0, n);
+        try (LongWriter writer = new LongWriter(path)) {
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || buffer[i] != buffer[i - 1]) {
+                    writer.put(buffer[i]);
+                }
+            }
+        }
+    }
+
+    // Layer counts from a checkpoint of this search (ending in 0 if it finished), or null to start over
+    private long[] resume(long start) throws IOException {
+        Path path = dir.resolve(CHECKPOINT);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < 25 || buffer.getInt() != MAGIC || buffer.getInt() != geometry.cells
+                || buffer.getInt() != pattern || buffer.getLong() != start) {
+            return null;
+        }
+        boolean done = buffer.get() != 0;
+        int layers = buffer.getInt();
+        if (layers < 1 || buffer.remaining() != 8L * layers) {
+            return null;
+        }
+        long[] counts = new long[done ? layers + 1 : layers];
+        for (int d = 0; d < layers; d++) {
+            counts[d] = buffer.getLong();
+        }
+        // Without its last two layers an unfinished search cannot go on
+        if (!done && (!Files.exists(layer(layers - 1)) || (layers > 1 && !Files.exists(layer(layers - 2))))) {
+            return null;
+        }
+        return counts;
+    }
+
+    // Atomically records the counts of every complete layer
+    private void checkpoint(long start, long[] counts, boolean done) throws IOException {
+        int layers = done ? counts.length - 1 : counts.length;
+        ByteBuffer buffer = ByteBuffer.allocate(25 + 8 * layers);
+        buffer.putInt(MAGIC).putInt(geometry.cells).putInt(pattern).putLong(start);
+        buffer.put((byte) (done ? 1 : 0)).putInt(layers);
+        for (int d = 0; d < layers; d++) {
+            buffer.putLong(counts[d]);
+        }
+        Path path = dir.resolve(CHECKPOINT);
+        Path tmp = dir.resolve(CHECKPOINT + ".tmp");
+        Files.write(tmp, buffer.array());
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path layer(int depth) {
+        return dir.resolve("layer-" + depth + ".bin");
+    }
+
+    private Path run(int i) {
+        return dir.resolve("run-" + i + ".bin");
+    }
+
+    // Streams the codes of a sorted file through a sliding memory-mapped window
+    private static final class LongReader implements AutoCloseable {
+        private final FileChannel channel;
+        private final long size;
+        private long offset; // file position of the start of window
+        private MappedByteBuffer window;
+
+        LongReader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.size = channel.size();
+            map(0);
+        }
+
+        private void map(long from) throws IOException {
+            offset = from;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(WINDOW, size - from));
+        }
+
+        boolean hasNext() throws IOException {
+            if (!window.hasRemaining() && offset + window.limit() < size) {
+                map(offset + window.limit());
+            }
+            return window.hasRemaining();
+        }
+
+        long peek() {
+            return window.getLong(window.position());
+        }
+
+        long next() {
+            return window.getLong();
+        }
+
+        // Advances past every code below target, returning true if target itself is next
+        boolean skipTo(long target) throws IOException {
+            while (hasNext() && peek() < target) {
+                next();
+            }
+            return hasNext() && peek() == target;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    private static final class LongWriter implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+        private long count;
+
+        LongWriter(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void put(long code) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.putLong(code);
+            count++;
+        }
+
+        long count() {
+            return count;
+        }
+
+        // Writes everything out and waits for it to reach the disk, before a checkpoint refers to it
+        void force() throws IOException {
+            flush();
+            channel.force(false);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            channel.close();
+        }
+    }
+}
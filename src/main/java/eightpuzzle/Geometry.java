@@ -0,0 +1,174 @@
+package eightpuzzle;
+
+/**
+ * Size-dependent tables for an N x N sliding puzzle, from 2x2 up to 5x5 (the 24-puzzle).
+ *
+ * Boards of any size can be held as a row-major {@code byte[]} of tiles. Boards with at most
+ * 16 cells (up to the 15-puzzle) can also be packed into a {@code long}, one nibble per cell.
+ * The 15-puzzle leaves no room to cache the blank as {@link Board} does, so the blank is found
+ * as the lowest zero nibble. 3x3 boards pack in the {@link Board} format, whose cached blank sits
+ * above the tiles and so does not disturb that lookup; the searches can then walk boards of
+ * every packable size through one geometry. In the goal state tile t sits at cell t, with the
+ * blank in the top-left corner, matching the 3x3 goal.
+ */
+final class Geometry {
+
+    static final int MIN_SIZE = 2;
+    static final int MAX_SIZE = 5;
+
+    private static final Geometry[] SIZES = new Geometry[MAX_SIZE + 1];
+
+    static {
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+            SIZES[size] = new Geometry(size);
+        }
+    }
+
+    private static final long LOW_BITS = 0x1111111111111111L;
+
+    final int size;
+    final int cells;
+    final int[][] neighbours; // [cell][direction] -> cell the blank moves to, or -1
+    final int[][] misplaced; // [tile][cell] -> h1 cost
+    final int[][] manhattan; // [tile][cell] -> h2 cost
+    final long goal; // packed goal, only meaningful when packable()
+
+    private Geometry(int size) {
+        this.size = size;
+        this.cells = size * size;
+        this.neighbours = new int[cells][4];
+        this.misplaced = new int[cells][cells];
+        this.manhattan = new int[cells][cells];
+        for (int pos = 0; pos < cells; pos++) {
+            int row = pos / size;
+            int col = pos % size;
+            neighbours[pos][Board.UP] = row > 0 ? pos - size : -1;
+            neighbours[pos][Board.DOWN] = row < size - 1 ? pos + size : -1;
+            neighbours[pos][Board.LEFT] = col > 0 ? pos - 1 : -1;
+            neighbours[pos][Board.RIGHT] = col < size - 1 ? pos + 1 : -1;
+        }
+        for (int tile = 1; tile < cells; tile++) {
+            for (int pos = 0; pos < cells; pos++) {
+                misplaced[tile][pos] = tile != pos ? 1 : 0;
+                manhattan[tile][pos] = Math.abs(tile / size - pos / size) + Math.abs(tile % size - pos % size);
+            }
+        }
+        this.goal = cells <= 16 ? pack(goalTiles()) : 0;
+    }
+
+    // Tables for a board size, or null if the size is not supported
+    static Geometry of(int size) {
+        return size >= MIN_SIZE && size <= MAX_SIZE ? SIZES[size] : null;
+    }
+
+    // Geometry whose boards have the given number of cells, or null if there is none
+    static Geometry forCells(int cells) {
+        for (int size = MIN_SIZE; size <= MAX_SIZE; size++) {
+            if (size * size == cells) {
+                return SIZES[size];
+            }
+        }
+        return null;
+    }
+
+    byte[] goalTiles() {
+        byte[] tiles = new byte[cells];
+        for (int i = 0; i < cells; i++) {
+            tiles[i] = (byte) i;
+        }
+        return tiles;
+    }
+
+    // Table for the heuristic name used on the command line: h1 selects misplaced tiles, anything else Manhattan
+    int[][] costs(String heuristic) {
+        return heuristic.equals("h1") ? misplaced : manhattan;
+    }
+
+    // Cost of the board under a per-tile table such as misplaced or manhattan
+    static int evaluate(int[][] costs, byte[] tiles) {
+        int value = 0;
+        for (int pos = 0; pos < tiles.length; pos++) {
+            value += costs[tiles[pos]][pos];
+        }
+        return value;
+    }
+
+    static int blank(byte[] tiles) {
+        for (int pos = 0; pos < tiles.length; pos++) {
+            if (tiles[pos] == 0) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    // Whether tiles is a board of this size: each of 0 .. cells - 1 exactly once
+    boolean isBoard(byte[] tiles) {
+        if (tiles.length != cells) {
+            return false;
+        }
+        long seen = 0;
+        for (byte tile : tiles) {
+            if (tile < 0 || tile >= cells || (seen & (1L << tile)) != 0) {
+                return false;
+            }
+            seen |= 1L << tile;
+        }
+        return true;
+    }
+
+    // Whether board is a board of this size exactly as pack() would produce it
+    boolean isPacked(long board) {
+        if (!packable()) {
+            return false;
+        }
+        byte[] tiles = unpack(board);
+        return isBoard(tiles) && pack(tiles) == board;
+    }
+
+    // Whether boards of this size fit in a long, one nibble per cell
+    boolean packable() {
+        return cells <= 16;
+    }
+
+    long pack(byte[] tiles) {
+        long board = 0;
+        for (int i = 0; i < cells; i++) {
+            board |= (long) tiles[i] << (4 * i);
+        }
+        if (size == Board.SIZE) {
+            board |= (long) blank(tiles) << (4 * cells); // the blank cached as in Board.pack
+        }
+        return board;
+    }
+
+    byte[] unpack(long board) {
+        byte[] tiles = new byte[cells];
+        for (int i = 0; i < cells; i++) {
+            tiles[i] = (byte) ((board >>> (4 * i)) & 0xF);
+        }
+        return tiles;
+    }
+
+    // Position of the blank in a packed board: the lowest nibble that is all zeros
+    static int blank(long board) {
+        long zeros = ~board;
+        zeros &= zeros >>> 1;
+        zeros &= zeros >>> 2;
+        return Long.numberOfTrailingZeros(zeros & LOW_BITS) >>> 2;
+    }
+
+    // Slide the blank of a packed board one step, or return Board.NONE if that is not possible
+    long move(long board, int direction) {
+        if (size == Board.SIZE) {
+            return Board.move(board, direction); // keeps the cached blank up to date
+        }
+        int blank = blank(board);
+        int target = neighbours[blank][direction];
+        if (target < 0) {
+            return Board.NONE;
+        }
+        long tile = (board >>> (4 * target)) & 0xF;
+        return (board & ~(0xFL << (4 * target))) | (tile << (4 * blank));
+    }
+}
@@ -0,0 +1,159 @@
+package eightpuzzle;
+
+import java.util.ArrayDeque;
+
+/**
+ * DFS, BFS and A* for every board size that fits in a long (see {@link Geometry#packable()}).
+ *
+ * Boards are packed as {@link Geometry#pack(byte[])} does, which for 3x3 is the {@link Board}
+ * format. DFS and BFS mark generated boards in a {@link StateSet} on 3x3 and a
+ * {@link LongHashSet} otherwise, since the 15-puzzle's 16!/2 states are far too many for a
+ * rank-indexed bitset; A* keeps the best cost of each board in a {@link LongIntMap}. Boards too
+ * large to pack are solved with {@link IDAStar}.
+ */
+final class GridSearch {
+
+    // Successor order used by each search (DFS pushes onto a stack, so its order is reversed on pop)
+    private static final int[] DFS_ORDER = { Board.UP, Board.DOWN, Board.LEFT, Board.RIGHT };
+    private static final int[] SEARCH_ORDER = { Board.LEFT, Board.RIGHT, Board.UP, Board.DOWN };
+
+    private GridSearch() {
+    }
+
+    static SearchResult searchDFS(Geometry geometry, long start, int maxnodes) {
+        SearchStats stats = new SearchStats("DFS");
+        if (!Solvability.isSolvable(geometry.unpack(start), geometry.size)) {
+            return SearchResult.unsolvable(stats);
+        }
+        int nodesCreated = 1;
+        ArrayDeque<SearchNode> stack = new ArrayDeque<>();
+        stack.push(new SearchNode(start));
+        BoardSet visited = visitedSet(geometry);
+        visited.add(start);
+        while (!stack.isEmpty()) {
+            if (nodesCreated > maxnodes) {
+                stats.peakVisited = visited.size();
+                return SearchResult.maxnodes(stats, nodesCreated);
+            }
+            stats.open(stack.size());
+            SearchNode node = stack.pop();
+            if (node.state == geometry.goal) {
+                stats.peakVisited = visited.size();
+                return SearchResult.solved(stats, nodesCreated, node.path());
+            }
+            stats.expanded++;
+            for (int move : DFS_ORDER) {
+                long child = geometry.move(node.state, move);
+                if (child == Board.NONE) {
+                    continue;
+                }
+                if (visited.add(child)) {
+                    stack.push(new SearchNode(child, node, move, 0));
+                    nodesCreated++;
+                } else {
+                    stats.duplicates++;
+                }
+            }
+        }
+        stats.peakVisited = visited.size();
+        return SearchResult.noSolution(stats, nodesCreated);
+    }
+
+    static SearchResult searchBFS(Geometry geometry, long start, int maxnodes) {
+        SearchStats stats = new SearchStats("BFS");
+        if (!Solvability.isSolvable(geometry.unpack(start), geometry.size)) {
+            return SearchResult.unsolvable(stats);
+        }
+        int nodesCreated = 1;
+        ArrayDeque<SearchNode> queue = new ArrayDeque<>();
+        queue.add(new SearchNode(start));
+        // Boards are marked when generated: the first path BFS finds to a board is already a shortest one
+        BoardSet visited = visitedSet(geometry);
+        visited.add(start);
+        while (!queue.isEmpty()) {
+            if (nodesCreated > maxnodes) {
+                stats.peakVisited = visited.size();
+                return SearchResult.maxnodes(stats, nodesCreated);
+            }
+            stats.open(queue.size());
+            SearchNode node = queue.poll();
+            if (node.state == geometry.goal) {
+                stats.peakVisited = visited.size();
+                return SearchResult.solved(stats, nodesCreated, node.path());
+            }
+            stats.expanded++;
+            for (int move : SEARCH_ORDER) {
+                long child = geometry.move(node.state, move);
+                if (child == Board.NONE) {
+                    continue;
+                }
+                if (visited.add(child)) {
+                    queue.add(new SearchNode(child, node, move, 0));
+                    nodesCreated++;
+                } else {
+                    stats.duplicates++;
+                }
+            }
+        }
+        stats.peakVisited = visited.size();
+        return SearchResult.noSolution(stats, nodesCreated);
+    }
+
+    /**
+     * A* keeping the best known g of every board seen. A board reached again by a shorter path
+     * is pushed again, and the older, costlier entry is skipped when it comes off the open list
+     * (lazy deletion), so with an admissible heuristic the first goal popped is optimal.
+     */
+    static SearchResult searchAStar(Geometry geometry, long start, String heuristic, int maxnodes, OpenList open) {
+        SearchStats stats = new SearchStats("A*-" + heuristic);
+        if (!Solvability.isSolvable(geometry.unpack(start), geometry.size)) {
+            return SearchResult.unsolvable(stats);
+        }
+        Heuristic estimate = Heuristic.of(geometry, heuristic);
+        int nodesCreated = 1;
+        SearchNode root = new SearchNode(start);
+        root.cost = estimate.evaluate(start);
+        open.add(root);
+        LongIntMap bestG = new LongIntMap();
+        bestG.put(start, 0);
+        while (!open.isEmpty()) {
+            if (nodesCreated > maxnodes) {
+                stats.peakVisited = bestG.size();
+                return SearchResult.maxnodes(stats, nodesCreated);
+            }
+            stats.open(open.size());
+            SearchNode node = open.poll();
+            if (node.g > bestG.get(node.state, Integer.MAX_VALUE)) {
+                stats.duplicates++; // superseded by a shorter path pushed later
+                continue;
+            }
+            if (node.state == geometry.goal) {
+                stats.peakVisited = bestG.size();
+                return SearchResult.solved(stats, nodesCreated, node.path());
+            }
+            stats.expanded++;
+            for (int move : SEARCH_ORDER) {
+                long child = geometry.move(node.state, move);
+                if (child == Board.NONE) {
+                    continue;
+                }
+                int g = node.g + 1;
+                if (g >= bestG.get(child, Integer.MAX_VALUE)) {
+                    stats.duplicates++;
+                    continue;
+                }
+                bestG.put(child, g);
+                int h = estimate.update(node.state, node.cost - node.g, child);
+                open.add(new SearchNode(child, node, move, g + h));
+                nodesCreated++;
+            }
+        }
+        stats.peakVisited = bestG.size();
+        return SearchResult.noSolution(stats, nodesCreated);
+    }
+
+    // 3x3 boards rank into a bitset that covers all of them; larger ones are hashed
+    private static BoardSet visitedSet(Geometry geometry) {
+        return geometry.size == Board.SIZE ? new StateSet() : new LongHashSet();
+    }
+}
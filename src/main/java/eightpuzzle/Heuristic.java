@@ -0,0 +1,172 @@
+package eightpuzzle;
+
+/**
+ * Admissible estimate of the moves left from a packed board (see {@link Geometry#pack(byte[])}),
+ * chosen once per search.
+ *
+ * A search evaluates the root in full and then derives each successor's value from its
+ * parent's with {@link #update}. A move relocates a single tile, so the per-tile heuristics
+ * only look up two table entries.
+ */
+interface Heuristic {
+
+    int evaluate(long board);
+
+    // Value of child, one move away from parent whose value is h
+    int update(long parent, int h, long child);
+
+    /**
+     * Heuristic for the name used on the command line: h1 misplaced tiles, h3 the pattern
+     * database, h4 Manhattan distance plus linear conflicts; anything else is Manhattan distance.
+     * h3 and h4 only cover 3x3 boards.
+     */
+    static Heuristic of(String name) {
+        switch (name) {
+            case "h1":
+                return TileCosts.MISPLACED;
+            case "h3":
+                return Database.INSTANCE;
+            case "h4":
+                return LinearConflict.INSTANCE;
+            default:
+                return TileCosts.MANHATTAN;
+        }
+    }
+
+    // As above for boards of the given size, where other sizes than 3x3 only have h1 and h2
+    static Heuristic of(Geometry geometry, String name) {
+        if (geometry.size == Board.SIZE) {
+            return of(name);
+        }
+        return new TileCosts(geometry, geometry.costs(name));
+    }
+
+    // Sum of per-tile costs from a table such as Geometry.manhattan
+    final class TileCosts implements Heuristic {
+        private static final Geometry EIGHT = Geometry.of(Board.SIZE);
+        static final TileCosts MISPLACED = new TileCosts(EIGHT, EIGHT.misplaced);
+        static final TileCosts MANHATTAN = new TileCosts(EIGHT, EIGHT.manhattan);
+
+        private final Geometry geometry;
+        private final int[][] costs;
+
+        private TileCosts(Geometry geometry, int[][] costs) {
+            this.geometry = geometry;
+            this.costs = costs;
+        }
+
+        public int evaluate(long board) {
+            return Geometry.evaluate(costs, geometry.unpack(board));
+        }
+
+        public int update(long parent, int h, long child) {
+            // The tile now at the parent's blank came from the child's blank
+            int from = Geometry.blank(child);
+            int to = Geometry.blank(parent);
+            int tile = (int) (parent >>> (4 * from)) & 0xF;
+            return h - costs[tile][from] + costs[tile][to];
+        }
+    }
+
+    // h3: exact distance from the pattern database, looked up afresh for every board
+    final class Database implements Heuristic {
+        static final Database INSTANCE = new Database();
+
+        public int evaluate(long board) {
+            return PatternDatabase.get().distance(board);
+        }
+
+        public int update(long parent, int h, long child) {
+            return PatternDatabase.get().distance(child);
+        }
+    }
+
+    /**
+     * h4: Manhattan distance plus two moves for each tile that must leave its goal row or column
+     * to let another tile in that line pass it.
+     *
+     * The penalty of each row and column is precomputed for every arrangement of its three
+     * nibbles. A horizontal move changes the order of tiles only in the two columns involved, and
+     * a vertical move only in the two rows, so updates re-read two lines.
+     */
+    final class LinearConflict implements Heuristic {
+        static final LinearConflict INSTANCE = new LinearConflict();
+
+        private static final int SIZE = Board.SIZE;
+        private static final int[][] MANHATTAN = Geometry.of(SIZE).manhattan;
+        private static final int[][] ROWS = new int[SIZE][1 << 12]; // [row][three nibbles] -> penalty
+        private static final int[][] COLUMNS = new int[SIZE][1 << 12];
+
+        static {
+            for (int line = 0; line < SIZE; line++) {
+                for (int key = 0; key < 1 << 12; key++) {
+                    ROWS[line][key] = penalty(key, line, true);
+                    COLUMNS[line][key] = penalty(key, line, false);
+                }
+            }
+        }
+
+        // Twice the number of tiles to remove from a line so the rest are in goal order
+        private static int penalty(int key, int line, boolean row) {
+            int[] goals = new int[SIZE]; // goal positions along the line of the tiles that belong to it
+            int count = 0;
+            for (int i = 0; i < SIZE; i++) {
+                int tile = (key >>> (4 * i)) & 0xF;
+                if (tile == 0 || tile >= Board.CELLS) {
+                    continue;
+                }
+                if (row ? tile / SIZE == line : tile % SIZE == line) {
+                    goals[count++] = row ? tile % SIZE : tile / SIZE;
+                }
+            }
+            // Longest increasing run of goal positions, by dynamic programming over at most three tiles
+            int[] longest = new int[count];
+            int best = 0;
+            for (int i = 0; i < count; i++) {
+                longest[i] = 1;
+                for (int j = 0; j < i; j++) {
+                    if (goals[j] < goals[i]) {
+                        longest[i] = Math.max(longest[i], longest[j] + 1);
+                    }
+                }
+                best = Math.max(best, longest[i]);
+            }
+            return 2 * (count - best);
+        }
+
+        private static int row(long board, int row) {
+            return ROWS[row][(int) (board >>> (4 * SIZE * row)) & 0xFFF];
+        }
+
+        private static int column(long board, int column) {
+            int key = (int) (board >>> (4 * column)) & 0xF
+                    | ((int) (board >>> (4 * (column + SIZE))) & 0xF) << 4
+                    | ((int) (board >>> (4 * (column + 2 * SIZE))) & 0xF) << 8;
+            return COLUMNS[column][key];
+        }
+
+        public int evaluate(long board) {
+            int value = TileCosts.MANHATTAN.evaluate(board);
+            for (int line = 0; line < SIZE; line++) {
+                value += row(board, line) + column(board, line);
+            }
+            return value;
+        }
+
+        public int update(long parent, int h, long child) {
+            int from = Board.blank(child);
+            int to = Board.blank(parent);
+            int tile = Board.tileAt(parent, from);
+            h += MANHATTAN[tile][to] - MANHATTAN[tile][from];
+            if (from / SIZE == to / SIZE) {
+                // Horizontal move: the tile left one column for another
+                int a = from % SIZE;
+                int b = to % SIZE;
+                return h - column(parent, a) - column(parent, b) + column(child, a) + column(child, b);
+            }
+            int a = from / SIZE;
+            int b = to / SIZE;
+            return h - row(parent, a) - row(parent, b) + row(child, a) + row(child, b);
+        }
+    }
+}
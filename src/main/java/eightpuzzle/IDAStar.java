@@ -0,0 +1,192 @@
+package eightpuzzle;
+
+import java.util.Arrays;
+
+/**
+ * Iterative-deepening A* for boards of any supported size.
+ *
+ * Memory use is independent of how hard the instance is: the search slides tiles in place in a
+ * single tile array and keeps only the current path. The heuristic is updated incrementally
+ * from the single tile each move displaces, and the inverse of the previous move is never
+ * generated. On 3x3 boards a {@link Heuristic} may be given instead of a cost table, in which
+ * case the search walks packed boards and updates the heuristic through it, so every
+ * heuristic A* offers is available here too.
+ */
+final class IDAStar {
+
+    private static final int FOUND = -1;
+
+    // Longest optimal solutions are 31 (3x3), 80 (4x4) and at most 205 (5x5) moves
+    private static final int MAX_DEPTH = 256;
+
+    private final Geometry geometry;
+    private final int[][] costs;
+    private final Heuristic estimate; // replaces costs on 3x3 boards when not null
+    private final int maxnodes;
+    private final byte[] path = new byte[MAX_DEPTH];
+    private byte[] tiles;
+    private int nodesCreated;
+    private int solutionLength;
+    private SearchStats stats;
+
+    IDAStar(Geometry geometry, int[][] costs, int maxnodes) {
+        this(geometry, costs, null, maxnodes);
+    }
+
+    // Search on packed 3x3 boards guided by estimate
+    IDAStar(Heuristic estimate, int maxnodes) {
+        this(Geometry.of(Board.SIZE), null, estimate, maxnodes);
+    }
+
+    private IDAStar(Geometry geometry, int[][] costs, Heuristic estimate, int maxnodes) {
+        this.geometry = geometry;
+        this.costs = costs;
+        this.estimate = estimate;
+        this.maxnodes = maxnodes;
+    }
+
+    // Convenience for packed 3x3 boards
+    SearchResult solve(long board) {
+        if (estimate != null) {
+            return solve(board, null);
+        }
+        byte[] tiles = new byte[Board.CELLS];
+        for (int i = 0; i < Board.CELLS; i++) {
+            tiles[i] = (byte) Board.tileAt(board, i);
+        }
+        return solve(tiles);
+    }
+
+    SearchResult solve(byte[] start) {
+        if (estimate != null) {
+            int[] values = new int[Board.CELLS];
+            for (int i = 0; i < Board.CELLS; i++) {
+                values[i] = start[i];
+            }
+            return solve(Board.pack(values), null);
+        }
+        return solve(0, start);
+    }
+
+    // Iterative deepening over either a packed 3x3 board (when start is null) or a tile array
+    private SearchResult solve(long board, byte[] start) {
+        stats = new SearchStats("IDA*");
+        if (start == null ? !Solvability.isSolvable(board) : !Solvability.isSolvable(start, geometry.size)) {
+            return SearchResult.unsolvable(stats);
+        }
+        nodesCreated = 1;
+        int blank = 0;
+        int h;
+        if (start == null) {
+            h = estimate.evaluate(board);
+        } else {
+            tiles = start.clone();
+            blank = Geometry.blank(tiles);
+            h = Geometry.evaluate(costs, tiles);
+        }
+        int bound = h;
+        while (true) {
+            int next = start == null ? search(board, 0, h, bound, -1) : search(blank, 0, h, bound, -1);
+            if (next == FOUND) {
+                return SearchResult.solved(stats, nodesCreated, Arrays.copyOf(path, solutionLength));
+            }
+            if (nodesCreated > maxnodes) {
+                return SearchResult.maxnodes(stats, nodesCreated);
+            }
+            if (next == Integer.MAX_VALUE) {
+                return SearchResult.noSolution(stats, nodesCreated);
+            }
+            bound = next;
+        }
+    }
+
+    // As below, for a packed 3x3 board whose heuristic value is h
+    private int search(long board, int g, int h, int bound, int previous) {
+        int f = g + h;
+        if (f > bound) {
+            return f;
+        }
+        if (Board.isGoal(board)) {
+            solutionLength = g;
+            return FOUND;
+        }
+        if (g == MAX_DEPTH) {
+            return Integer.MAX_VALUE;
+        }
+        stats.open(g + 1);
+        stats.expanded++;
+        int min = Integer.MAX_VALUE;
+        for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+            long child = Board.move(board, dir);
+            if (child == Board.NONE) {
+                continue;
+            }
+            if (previous >= 0 && dir == Board.inverse(previous)) {
+                stats.duplicates++;
+                continue;
+            }
+            if (++nodesCreated > maxnodes) {
+                return Integer.MAX_VALUE;
+            }
+            path[g] = (byte) dir;
+            int result = search(child, g + 1, estimate.update(board, h, child), bound, dir);
+            if (result == FOUND) {
+                return FOUND;
+            }
+            if (result < min) {
+                min = result;
+            }
+        }
+        return min;
+    }
+
+    // Depth-first search below the current tiles; returns FOUND or the smallest f that exceeded the bound
+    private int search(int blank, int g, int h, int bound, int previous) {
+        int f = g + h;
+        if (f > bound) {
+            return f;
+        }
+        // Both heuristics are zero only when every tile is home
+        if (h == 0) {
+            solutionLength = g;
+            return FOUND;
+        }
+        if (g == MAX_DEPTH) {
+            return Integer.MAX_VALUE;
+        }
+        // The open list of a depth-first search is the current path
+        stats.open(g + 1);
+        stats.expanded++;
+        int[] targets = geometry.neighbours[blank];
+        int min = Integer.MAX_VALUE;
+        for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+            int target = targets[dir];
+            if (target < 0) {
+                continue;
+            }
+            if (previous >= 0 && dir == Board.inverse(previous)) {
+                stats.duplicates++;
+                continue;
+            }
+            if (++nodesCreated > maxnodes) {
+                return Integer.MAX_VALUE;
+            }
+            // The tile at target slides into the blank's old position, and back again afterwards
+            int tile = tiles[target];
+            int childH = h - costs[tile][target] + costs[tile][blank];
+            tiles[blank] = (byte) tile;
+            tiles[target] = 0;
+            path[g] = (byte) dir;
+            int result = search(target, g + 1, childH, bound, dir);
+            tiles[target] = (byte) tile;
+            tiles[blank] = 0;
+            if (result == FOUND) {
+                return FOUND;
+            }
+            if (result < min) {
+                min = result;
+            }
+        }
+        return min;
+    }
+}
@@ -0,0 +1,77 @@
+package eightpuzzle;
+
+/**
+ * Open-addressed set of longs with linear probing.
+ *
+ * Used to key visited sets on packed boards when the state space is too large for a
+ * rank-indexed bitset such as {@link StateSet}. Slots hold the keys themselves, 8 bytes each,
+ * and the table doubles once it is half full.
+ */
+final class LongHashSet implements BoardSet {
+
+    private static final long EMPTY = 0; // zero is tracked separately so it can still be stored
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsEmpty;
+
+    LongHashSet() {
+        this(1 << 10);
+    }
+
+    LongHashSet(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    @Override
+    public boolean add(long key) {
+        if (key == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        int slot = slot(key);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        if (++size * 2 > keys.length) {
+            grow();
+        }
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing spreads the nibble patterns of packed boards over the table
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+
+    private void grow() {
+        long[] old = keys;
+        keys = new long[old.length * 2];
+        mask = keys.length - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+}
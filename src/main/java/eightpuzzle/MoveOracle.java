@@ -0,0 +1,107 @@
+package eightpuzzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Optimal next move of every solvable 3x3 board, so a shortest solution is read off in
+ * O(solution length) without searching.
+ *
+ * Each of the 181,440 boards gets 2 bits at {@link Board#index(long)}: the direction of a move
+ * that brings it one step closer to the goal, four boards to a byte, 45,360 bytes in all. The
+ * goal's entry is unused. The table is derived from the goal distances of {@link ParallelBFS},
+ * written once to a binary file and memory-mapped on later launches, like
+ * {@link PatternDatabase}.
+ */
+final class MoveOracle {
+
+    // File location, overridable with -Deightpuzzle.moves=<path>
+    static final String DEFAULT_PATH = "eightpuzzle.moves";
+
+    private static final int MAGIC = 0x384D4F56; // "8MOV"
+    private static final int TABLE_BYTES = Board.SOLVABLE / 4;
+    private static final int MAX_MOVES = 31; // the longest optimal 3x3 solution
+
+    private final ByteBuffer table;
+    private final Path path; // where the table was read from, for error messages
+    private final String error; // why the table file could not be used, or null if it was
+
+    private MoveOracle(ByteBuffer table, Path path, String error) {
+        this.table = table;
+        this.path = path;
+        this.error = error;
+    }
+
+    // Shared instance, loaded (or generated) on first use
+    static MoveOracle get() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final MoveOracle INSTANCE = load(path());
+    }
+
+    static Path path() {
+        return Paths.get(System.getProperty("eightpuzzle.moves", DEFAULT_PATH));
+    }
+
+    // Direction of an optimal move from a solvable board other than the goal
+    int next(long board) {
+        int index = Board.index(board);
+        return (table.get(TableFile.HEADER_BYTES + (index >>> 2)) >>> (2 * (index & 3))) & 3;
+    }
+
+    // Follows the table from start to the goal
+    SearchResult solve(long start) {
+        SearchStats stats = new SearchStats("Oracle");
+        if (!Solvability.isSolvable(start)) {
+            return SearchResult.unsolvable(stats);
+        }
+        byte[] path = new byte[MAX_MOVES];
+        int length = 0;
+        for (long board = start; !Board.isGoal(board); length++) {
+            int dir = next(board);
+            board = Board.move(board, dir);
+            // A sound table reaches the goal within MAX_MOVES and never points off the grid
+            if (length == MAX_MOVES || board == Board.NONE) {
+                return SearchResult.noSolution(stats, 0)
+                        .withMessage("Error: move table file " + this.path + " is corrupt; run buildMoveTable and restart");
+            }
+            path[length] = (byte) dir;
+        }
+        return SearchResult.solved(stats, 0, Arrays.copyOf(path, length)).withMessage(error);
+    }
+
+    // Maps the table at path, generating and writing it first if the file is missing or invalid
+    static MoveOracle load(Path path) {
+        TableFile file = TableFile.load(path, MAGIC, Board.SOLVABLE, TABLE_BYTES, MoveOracle::build, "move table");
+        return new MoveOracle(file.buffer, path, file.error);
+    }
+
+    static void write(Path path, byte[] moves) throws IOException {
+        TableFile.write(path, MAGIC, Board.SOLVABLE, moves);
+    }
+
+    // For each board, the first move (by Board.move) that reaches a board one step closer to the goal
+    static byte[] build() {
+        byte[] distances = ParallelBFS.distances(Board.GOAL);
+        byte[] moves = new byte[TABLE_BYTES];
+        for (int index = 0; index < Board.SOLVABLE; index++) {
+            long board = Board.unindex(index);
+            if (Board.isGoal(board)) {
+                continue;
+            }
+            for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                long child = Board.move(board, dir);
+                if (child != Board.NONE && distances[Board.index(child)] == distances[index] - 1) {
+                    moves[index >>> 2] |= (byte) (dir << (2 * (index & 3)));
+                    break;
+                }
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,137 @@
+package eightpuzzle;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Open list for best-first search, ordered by {@link SearchNode#cost}.
+ *
+ * Two implementations are available: a binary heap, and a bucket queue indexed by cost that
+ * pushes and pops in O(1) because f-values are small non-negative integers.
+ */
+interface OpenList {
+
+    void add(SearchNode node);
+
+    // Removes and returns a node of minimal cost
+    SearchNode poll();
+
+    boolean isEmpty();
+
+    int size();
+
+    // Open list for the name given on the command line ("heap" or "bucket"), or null if unknown
+    static OpenList create(String kind) {
+        switch (kind) {
+            case "heap":
+                return new Heap();
+            case "bucket":
+                return new Buckets();
+            default:
+                return null;
+        }
+    }
+
+    // Binary heap; O(log n) per operation, ties broken arbitrarily
+    final class Heap implements OpenList {
+        private final PriorityQueue<SearchNode> queue = new PriorityQueue<>(Comparator.comparingInt(n -> n.cost));
+
+        public void add(SearchNode node) {
+            queue.add(node);
+        }
+
+        public SearchNode poll() {
+            return queue.poll();
+        }
+
+        public boolean isEmpty() {
+            return queue.isEmpty();
+        }
+
+        public int size() {
+            return queue.size();
+        }
+    }
+
+    // Buckets indexed by cost, each split by g, so among equal f the deepest node wins (LIFO among equal g)
+    final class Buckets implements OpenList {
+        private Bucket[] buckets = new Bucket[64];
+        private int min = Integer.MAX_VALUE; // lowest possibly non-empty bucket
+        private int size;
+
+        public void add(SearchNode node) {
+            int f = node.cost;
+            if (f >= buckets.length) {
+                buckets = Arrays.copyOf(buckets, Math.max(buckets.length * 2, f + 1));
+            }
+            Bucket bucket = buckets[f];
+            if (bucket == null) {
+                bucket = buckets[f] = new Bucket();
+            }
+            bucket.add(node);
+            if (f < min) {
+                min = f;
+            }
+            size++;
+        }
+
+        public SearchNode poll() {
+            if (size == 0) {
+                return null;
+            }
+            while (buckets[min] == null || buckets[min].size == 0) {
+                min++;
+            }
+            size--;
+            return buckets[min].poll();
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // The nodes of one cost: a LIFO stack per g, popped from the largest g down
+        private static final class Bucket {
+            private SearchNode[][] stacks = new SearchNode[16][];
+            private int[] counts = new int[16];
+            private int max = -1; // highest possibly non-empty stack
+            int size;
+
+            void add(SearchNode node) {
+                int g = node.g;
+                if (g >= stacks.length) {
+                    int capacity = Math.max(stacks.length * 2, g + 1);
+                    stacks = Arrays.copyOf(stacks, capacity);
+                    counts = Arrays.copyOf(counts, capacity);
+                }
+                SearchNode[] stack = stacks[g];
+                if (stack == null) {
+                    stack = stacks[g] = new SearchNode[16];
+                } else if (counts[g] == stack.length) {
+                    stack = stacks[g] = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[counts[g]++] = node;
+                if (g > max) {
+                    max = g;
+                }
+                size++;
+            }
+
+            SearchNode poll() {
+                while (counts[max] == 0) {
+                    max--;
+                }
+                int last = --counts[max];
+                SearchNode node = stacks[max][last];
+                stacks[max][last] = null;
+                size--;
+                return node;
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package eightpuzzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Level-synchronous breadth-first search over every board reachable from a goal.
+ *
+ * Each level's frontier is cut into slices that are expanded in parallel on the common
+ * fork/join pool. Workers claim a board by setting its bit in a shared visited bitmap with a
+ * compare-and-set, so each board is claimed by exactly one worker. The winner records its
+ * distance and appends the board to that worker's own frontier buffer. The buffers are joined
+ * to form the next level. Moves are reversible, so the distance from the goal equals the
+ * distance to it.
+ */
+final class ParallelBFS {
+
+    static final byte UNREACHED = -1;
+
+    private static final int SLICES_PER_THREAD = 4;
+    private static final int MIN_SLICE = 256;
+
+    private ParallelBFS() {
+    }
+
+    /**
+     * Distance of every board from goal, indexed by {@link Board#index(long)}. The index is a
+     * perfect hash within any one parity class, so it works for goals of either parity; boards
+     * of the other class cannot be reached and are left {@link #UNREACHED}.
+     */
+    static byte[] distances(long goal) {
+        byte[] distances = new byte[Board.SOLVABLE];
+        Arrays.fill(distances, UNREACHED);
+        AtomicLongArray visited = new AtomicLongArray((Board.SOLVABLE + 63) >>> 6);
+        int root = Board.index(goal);
+        visited.set(root >>> 6, 1L << root);
+        distances[root] = 0;
+
+        int slices = ForkJoinPool.getCommonPoolParallelism() * SLICES_PER_THREAD;
+        long[] frontier = { goal };
+        for (int depth = 1; frontier.length > 0; depth++) {
+            int sliceSize = Math.max(MIN_SLICE, (frontier.length + slices - 1) / slices);
+            List<Expand> tasks = new ArrayList<>();
+            for (int from = 0; from < frontier.length; from += sliceSize) {
+                int to = Math.min(frontier.length, from + sliceSize);
+                tasks.add(new Expand(frontier, from, to, visited, distances, (byte) depth));
+            }
+            ForkJoinTask.invokeAll(tasks);
+
+            int total = 0;
+            for (Expand task : tasks) {
+                total += task.count;
+            }
+            long[] next = new long[total];
+            int offset = 0;
+            for (Expand task : tasks) {
+                System.arraycopy(task.next, 0, next, offset, task.count);
+                offset += task.count;
+            }
+            frontier = next;
+        }
+        return distances;
+    }
+
+    // Number of boards at each distance; the last entry is the largest distance reached
+    static int[] histogram(byte[] distances) {
+        int[] counts = new int[Byte.MAX_VALUE + 1];
+        int max = 0;
+        for (byte d : distances) {
+            if (d != UNREACHED) {
+                counts[d]++;
+                max = Math.max(max, d);
+            }
+        }
+        return Arrays.copyOf(counts, max + 1);
+    }
+
+    // Expands frontier[from, to) into a buffer owned by this task alone
+    private static final class Expand extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] frontier;
+        private final int from;
+        private final int to;
+        private final AtomicLongArray visited;
+        private final byte[] distances;
+        private final byte depth;
+        long[] next;
+        int count;
+
+        Expand(long[] frontier, int from, int to, AtomicLongArray visited, byte[] distances, byte depth) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.visited = visited;
+            this.distances = distances;
+            this.depth = depth;
+        }
+
+        @Override
+        protected void compute() {
+            // Every board has at most four neighbours
+            long[] buffer = new long[4 * (to - from)];
+            int n = 0;
+            for (int i = from; i < to; i++) {
+                long board = frontier[i];
+                for (int dir = Board.UP; dir <= Board.RIGHT; dir++) {
+                    long child = Board.move(board, dir);
+                    if (child == Board.NONE) {
+                        continue;
+                    }
+                    int index = Board.index(child);
+                    if (claim(index)) {
+                        distances[index] = depth;
+                        buffer[n++] = child;
+                    }
+                }
+            }
+            next = buffer;
+            count = n;
+        }
+
+        // Sets the visited bit for index, returning true only for the thread that set it
+        private boolean claim(int index) {
+            int word = index >>> 6;
+            long mask = 1L << index;
+            while (true) {
+                long bits = visited.get(word);
+                if ((bits & mask) != 0) {
+                    return false;
+                }
+                if (visited.compareAndSet(word, bits, bits | mask)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package eightpuzzle;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Exact goal distance of every solvable 3x3 board, used as the h3 heuristic.
+ *
+ * The table holds one byte per board at {@link Board#index(long)}, generated by a parallel
+ * breadth-first search backwards from the goal (see {@link ParallelBFS}). Distances run up to 31,
+ * one bit too many for a nibble, so the 181,440 entries are stored as bytes. The table is written
+ * once to a binary file and memory-mapped on later launches (see {@link TableFile}), so it is
+ * only regenerated when the file is missing or damaged.
+ */
+final class PatternDatabase {
+
+    // File location, overridable with -Deightpuzzle.pdb=<path>
+    static final String DEFAULT_PATH = "eightpuzzle.pdb";
+
+    private static final int MAGIC = 0x38504442; // "8PDB"
+
+    private final ByteBuffer table;
+    private final String error; // why the table file could not be used, or null if it was
+
+    private PatternDatabase(ByteBuffer table, String error) {
+        this.table = table;
+        this.error = error;
+    }
+
+    // Shared instance, loaded (or generated) on first use
+    static PatternDatabase get() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final PatternDatabase INSTANCE = load(Paths.get(System.getProperty("eightpuzzle.pdb", DEFAULT_PATH)));
+    }
+
+    // Why the table lives only in this process, or null if it was read from or written to its file
+    String error() {
+        return error;
+    }
+
+    int distance(long board) {
+        return table.get(TableFile.HEADER_BYTES + Board.index(board));
+    }
+
+    // Maps the table at path, generating and writing it first if the file is missing or invalid
+    static PatternDatabase load(Path path) {
+        TableFile file = TableFile.load(path, MAGIC, Board.SOLVABLE, Board.SOLVABLE, PatternDatabase::build,
+                "pattern database");
+        return new PatternDatabase(file.buffer, file.error);
+    }
+
+    // Distances from the goal; moves are reversible, so these are also the distances to it
+    static byte[] build() {
+        return ParallelBFS.distances(Board.GOAL);
+    }
+}
@@ -0,0 +1,40 @@
+package eightpuzzle;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// JFR event recorded once per finished search, e.g. with -XX:StartFlightRecording
+@Name("eightpuzzle.Search")
+@Label("Puzzle Search")
+@Category("Eight Puzzle")
+@Description("Counters of one completed search")
+class SearchEvent extends jdk.jfr.Event {
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Status")
+    String status;
+
+    @Label("Nodes Generated")
+    long generated;
+
+    @Label("Nodes Expanded")
+    long expanded;
+
+    @Label("Duplicates Pruned")
+    long duplicates;
+
+    @Label("Peak Open List Size")
+    int peakOpen;
+
+    @Label("Peak Visited Set Size")
+    int peakVisited;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsedNanos;
+}
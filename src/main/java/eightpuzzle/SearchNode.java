@@ -0,0 +1,33 @@
+package eightpuzzle;
+
+// A node in a search tree; the move list is rebuilt from parent links once the goal is reached
+class SearchNode {
+    long state; // packed board, see Board
+    SearchNode parent; // null for the root
+    byte move; // direction that produced this node from its parent
+    int cost; // For A* f = g + h
+    int g; // Cost from start, which is also the depth
+
+    SearchNode(long state) {
+        this.state = state;
+    }
+
+    SearchNode(long state, SearchNode parent, int move, int cost) {
+        this.state = state;
+        this.parent = parent;
+        this.move = (byte) move;
+        this.cost = cost;
+        this.g = parent.g + 1;
+    }
+
+    // Directions from the root to this node
+    byte[] path() {
+        byte[] path = new byte[g];
+        SearchNode node = this;
+        for (int i = g - 1; i >= 0; i--) {
+            path[i] = node.move;
+            node = node.parent;
+        }
+        return path;
+    }
+}
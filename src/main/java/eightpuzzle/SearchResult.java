@@ -0,0 +1,64 @@
+package eightpuzzle;
+
+// Outcome of one search: how it ended, how many nodes it created and, if solved, the moves taken
+public final class SearchResult {
+
+    public enum Status { SOLVED, MAXNODES, NO_SOLUTION, UNSOLVABLE }
+
+    public final Status status;
+    public final int nodesCreated;
+    public final byte[] path; // directions (see Board), empty unless solved
+    public final SearchStats stats;
+    // Anytime search: the path is at most this many times longer than optimal; NaN for other searches
+    public final double bound;
+    // Anytime search: whether it stopped because its time budget ran out
+    public final boolean timedOut;
+    // A problem with a precomputed table the search used, to be reported with the outcome, or null
+    public final String message;
+
+    private SearchResult(Status status, SearchStats stats, int nodesCreated, byte[] path) {
+        this.status = status;
+        this.nodesCreated = nodesCreated;
+        this.path = path;
+        this.stats = stats.finish(nodesCreated, status == Status.SOLVED ? path.length : -1, status);
+        this.bound = Double.NaN;
+        this.timedOut = false;
+        this.message = null;
+    }
+
+    private SearchResult(SearchResult result, double bound, boolean timedOut, String message) {
+        this.status = result.status;
+        this.nodesCreated = result.nodesCreated;
+        this.path = result.path;
+        this.stats = result.stats;
+        this.bound = bound;
+        this.timedOut = timedOut;
+        this.message = message;
+    }
+
+    // This result with the suboptimality bound and timeout flag of an anytime search
+    SearchResult withBound(double bound, boolean timedOut) {
+        return new SearchResult(this, bound, timedOut, message);
+    }
+
+    SearchResult withMessage(String message) {
+        return new SearchResult(this, bound, timedOut, message);
+    }
+
+    static SearchResult solved(SearchStats stats, int nodesCreated, byte[] path) {
+        return new SearchResult(Status.SOLVED, stats, nodesCreated, path);
+    }
+
+    static SearchResult maxnodes(SearchStats stats, int nodesCreated) {
+        return new SearchResult(Status.MAXNODES, stats, nodesCreated, new byte[0]);
+    }
+
+    static SearchResult noSolution(SearchStats stats, int nodesCreated) {
+        return new SearchResult(Status.NO_SOLUTION, stats, nodesCreated, new byte[0]);
+    }
+
+    // Rejected by the parity check before any node was created
+    static SearchResult unsolvable(SearchStats stats) {
+        return new SearchResult(Status.UNSOLVABLE, stats, 0, new byte[0]);
+    }
+}
@@ -0,0 +1,116 @@
+package eightpuzzle;
+
+// Solver over the existing searches: GridSearch for boards that pack into a long, IDAStar for any size
+final class SearchSolver implements Solver {
+
+    enum Kind { DFS, BFS, BIBFS, ASTAR, IDASTAR, ANYTIME, ORACLE }
+
+    private final Kind kind;
+    private final Geometry geometry;
+    private final String heuristic;
+    private final int[][] costs;
+    private final int maxnodes;
+    private final String openList;
+    private final long budgetNanos; // deadline of the anytime search, measured from the start of each solve
+
+    private SearchSolver(Kind kind, Geometry geometry, String heuristic, int maxnodes, String openList,
+            long budgetNanos) {
+        this.kind = kind;
+        this.geometry = geometry;
+        this.heuristic = heuristic;
+        this.costs = geometry.costs(heuristic);
+        this.maxnodes = maxnodes;
+        this.openList = openList;
+        this.budgetNanos = budgetNanos;
+    }
+
+    // Solver for the arguments, or null if the combination is not supported
+    static SearchSolver create(Kind kind, int size, String heuristic, int maxnodes, String openList) {
+        return create(kind, size, heuristic, maxnodes, openList, Long.MAX_VALUE);
+    }
+
+    static SearchSolver create(Kind kind, int size, String heuristic, int maxnodes, String openList,
+            long budgetNanos) {
+        Geometry geometry = Geometry.of(size);
+        if (geometry == null || OpenList.create(openList) == null) {
+            return null;
+        }
+        boolean eightPuzzle = size == Board.SIZE;
+        if ((kind == Kind.BIBFS || kind == Kind.ORACLE) && !eightPuzzle) {
+            return null;
+        }
+        // Only IDA* works on unpacked tiles, and the h3 and h4 heuristic objects only cover 3x3 boards
+        if (kind != Kind.IDASTAR && !geometry.packable()) {
+            return null;
+        }
+        boolean boardOnly = heuristic.equals("h3") || heuristic.equals("h4");
+        if ((kind == Kind.ASTAR || kind == Kind.ANYTIME || kind == Kind.IDASTAR) && boardOnly && !eightPuzzle) {
+            return null;
+        }
+        return new SearchSolver(kind, geometry, heuristic, maxnodes, openList, budgetNanos);
+    }
+
+    @Override
+    public SearchResult solve(byte[] tiles) {
+        if (!geometry.isBoard(tiles)) {
+            throw new IllegalArgumentException("not a " + geometry.size + "x" + geometry.size + " board");
+        }
+        if (kind == Kind.IDASTAR) {
+            return withTableErrors(idaStar().solve(tiles));
+        }
+        return solve(geometry.pack(tiles));
+    }
+
+    @Override
+    public SearchResult solve(long board) {
+        if (!geometry.isPacked(board)) {
+            throw new IllegalArgumentException("not a packed " + geometry.size + "x" + geometry.size + " board");
+        }
+        return withTableErrors(search(board));
+    }
+
+    private SearchResult search(long board) {
+        boolean eightPuzzle = geometry.size == Board.SIZE;
+        switch (kind) {
+            case DFS:
+                return GridSearch.searchDFS(geometry, board, maxnodes);
+            case BFS:
+                return GridSearch.searchBFS(geometry, board, maxnodes);
+            case BIBFS:
+                return new BidirectionalBFS(maxnodes).solve(board);
+            case ASTAR:
+                return GridSearch.searchAStar(geometry, board, heuristic, maxnodes, OpenList.create(openList));
+            case ORACLE:
+                return MoveOracle.get().solve(board);
+            case ANYTIME:
+                return new AnytimeAStar(geometry, heuristic, maxnodes, budgetNanos).solve(board);
+            default:
+                IDAStar search = idaStar();
+                return eightPuzzle ? search.solve(board) : search.solve(geometry.unpack(board));
+        }
+    }
+
+    // Attaches the reason the pattern database file could not be used to results that read it
+    private SearchResult withTableErrors(SearchResult result) {
+        boolean informed = kind == Kind.ASTAR || kind == Kind.IDASTAR || kind == Kind.ANYTIME;
+        if (informed && geometry.size == Board.SIZE && heuristic.equals("h3")) {
+            String error = PatternDatabase.get().error();
+            if (error != null) {
+                return result.withMessage(error);
+            }
+        }
+        return result;
+    }
+
+    // 3x3 boards use the heuristic objects, which cover h3 and h4; other sizes sum a cost table
+    private IDAStar idaStar() {
+        return geometry.size == Board.SIZE ? new IDAStar(Heuristic.of(heuristic), maxnodes)
+                : new IDAStar(geometry, costs, maxnodes);
+    }
+
+    // DFS takes the first path it finds, and an anytime search may stop before its last pass
+    @Override
+    public boolean optimal() {
+        return kind != Kind.DFS && kind != Kind.ANYTIME;
+    }
+}
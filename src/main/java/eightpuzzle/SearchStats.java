@@ -0,0 +1,95 @@
+package eightpuzzle;
+
+/**
+ * Counters collected while one search runs, returned with its {@link SearchResult}.
+ *
+ * Searches update the counters directly and call {@link #finish} once when they return, which
+ * stamps the elapsed time and emits a {@link SearchEvent} if JFR is recording.
+ */
+public final class SearchStats {
+
+    private final String algorithm;
+    private final long startNanos = System.nanoTime();
+    long generated; // nodes created, root included
+    long expanded; // nodes whose successors were generated
+    long duplicates; // successors dropped because their state was already seen
+    int peakOpen; // largest open list (frontier, stack, or recursion depth for IDA*)
+    int peakVisited; // largest visited/closed set
+    private long elapsedNanos;
+    private int depth; // solution length, or -1 if no solution was found
+
+    SearchStats(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    void open(int size) {
+        if (size > peakOpen) {
+            peakOpen = size;
+        }
+    }
+
+    void visited(int size) {
+        if (size > peakVisited) {
+            peakVisited = size;
+        }
+    }
+
+    SearchStats finish(long nodesCreated, int solutionLength, SearchResult.Status status) {
+        generated = nodesCreated;
+        depth = solutionLength;
+        elapsedNanos = System.nanoTime() - startNanos;
+        SearchEvent event = new SearchEvent();
+        if (event.isEnabled()) {
+            event.algorithm = algorithm;
+            event.status = status.name();
+            event.generated = generated;
+            event.expanded = expanded;
+            event.duplicates = duplicates;
+            event.peakOpen = peakOpen;
+            event.peakVisited = peakVisited;
+            event.elapsedNanos = elapsedNanos;
+            event.commit();
+        }
+        return this;
+    }
+
+    public String algorithm() {
+        return algorithm;
+    }
+
+    public long nodesGenerated() {
+        return generated;
+    }
+
+    public long nodesExpanded() {
+        return expanded;
+    }
+
+    public long duplicatesPruned() {
+        return duplicates;
+    }
+
+    public int peakOpenSize() {
+        return peakOpen;
+    }
+
+    public int peakVisitedSize() {
+        return peakVisited;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double nodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : generated * 1e9 / elapsedNanos;
+    }
+
+    // Branching factor b* of a uniform tree of the solution's depth holding the nodes generated, or 0 if unsolved
+    public double effectiveBranchingFactor() {
+        if (depth <= 0 || generated <= depth) {
+            return depth <= 0 ? 0 : 1;
+        }
+        return EightPuzzle.calculateBranchingFactor((int) Math.min(generated, Integer.MAX_VALUE), depth);
+    }
+}
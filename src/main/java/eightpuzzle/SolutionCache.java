@@ -0,0 +1,123 @@
+package eightpuzzle;
+
+/**
+ * Bounded cache of optimal 3x3 solutions keyed by packed board.
+ *
+ * A board and its mirror image in the main diagonal need the same number of moves, so both are
+ * stored under whichever of the two packed values is smaller and the moves are mirrored on the
+ * way in or out. When a solution is added, every board along it is cached too, pointing at the
+ * same move array with a different offset, so later queries from the middle of a known path
+ * are answered without searching.
+ *
+ * The table is 8-way set associative: a key can only live in the 8 slots of its set, and when
+ * the set is full a CLOCK hand evicts the first slot not referenced since it last passed. The
+ * number of sets is rounded up to a power of two, so the table holds at least the requested
+ * capacity and up to twice as much.
+ */
+final class SolutionCache {
+
+    // Largest capacity accepted: one entry per solvable board, more could never be filled
+    static final int MAX_CAPACITY = Board.SOLVABLE;
+
+    private static final int WAYS = 8;
+
+    private final long[] keys;
+    private final byte[][] paths; // moves to the goal from the canonical board, starting at offsets[slot]
+    private final int[] offsets;
+    private final boolean[] referenced;
+    private final byte[] hands; // CLOCK hand of each set
+    private final int setMask;
+
+    SolutionCache(int capacity) {
+        int wanted = (capacity + WAYS - 1) / WAYS;
+        int sets = wanted <= 1 ? 1 : Integer.highestOneBit(wanted - 1) << 1;
+        keys = new long[sets * WAYS];
+        paths = new byte[sets * WAYS][];
+        offsets = new int[sets * WAYS];
+        referenced = new boolean[sets * WAYS];
+        hands = new byte[sets];
+        setMask = sets - 1;
+    }
+
+    // Moves from board to the goal, or null if the board is not cached
+    byte[] get(long board) {
+        long mirrored = Board.mirror(board);
+        long key = Math.min(board, mirrored);
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        referenced[slot] = true;
+        byte[] path = paths[slot];
+        int offset = offsets[slot];
+        byte[] moves = new byte[path.length - offset];
+        for (int i = 0; i < moves.length; i++) {
+            byte move = path[offset + i];
+            moves[i] = key == board ? move : (byte) Board.MIRRORED_DIRECTION[move];
+        }
+        return moves;
+    }
+
+    // Caches an optimal path from start and, with it, the remaining path from every board along it
+    void put(long start, byte[] path) {
+        byte[] mirroredPath = new byte[path.length];
+        for (int i = 0; i < path.length; i++) {
+            mirroredPath[i] = (byte) Board.MIRRORED_DIRECTION[path[i]];
+        }
+        long board = start;
+        for (int i = 0; i <= path.length; i++) {
+            long mirrored = Board.mirror(board);
+            if (board <= mirrored) {
+                insert(board, path, i);
+            } else {
+                insert(mirrored, mirroredPath, i);
+            }
+            if (i < path.length) {
+                board = Board.move(board, path[i]);
+            }
+        }
+    }
+
+    private int find(long key) {
+        int base = set(key) * WAYS;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (paths[slot] != null && keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long key, byte[] path, int offset) {
+        int slot = find(key);
+        if (slot < 0) {
+            slot = victim(set(key));
+        }
+        keys[slot] = key;
+        paths[slot] = path;
+        offsets[slot] = offset;
+        referenced[slot] = true;
+    }
+
+    // Empty slot of the set if there is one, otherwise the next slot under the hand not referenced recently
+    private int victim(int set) {
+        int base = set * WAYS;
+        for (int slot = base; slot < base + WAYS; slot++) {
+            if (paths[slot] == null) {
+                return slot;
+            }
+        }
+        while (true) {
+            int slot = base + hands[set];
+            hands[set] = (byte) ((hands[set] + 1) % WAYS);
+            if (!referenced[slot]) {
+                return slot;
+            }
+            referenced[slot] = false;
+        }
+    }
+
+    private int set(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> 40) & setMask;
+    }
+}
@@ -0,0 +1,46 @@
+package eightpuzzle;
+
+/**
+ * Parity test for whether a board can reach the goal at all.
+ *
+ * Every move swaps the blank with a neighbour, so it flips the parity of the permutation
+ * (blank included) and also flips the parity of the blank's row-plus-column distance from its
+ * goal cell in the top-left corner. Both are even in the goal, so a board is solvable exactly
+ * when the two parities agree, for any board size. Inversions are counted with a Fenwick tree
+ * in O(n log n).
+ */
+final class Solvability {
+
+    private Solvability() {
+    }
+
+    static boolean isSolvable(long board) {
+        byte[] tiles = new byte[Board.CELLS];
+        for (int i = 0; i < Board.CELLS; i++) {
+            tiles[i] = (byte) Board.tileAt(board, i);
+        }
+        return isSolvable(tiles, Board.SIZE);
+    }
+
+    static boolean isSolvable(byte[] tiles, int size) {
+        int n = tiles.length;
+        int[] tree = new int[n + 1]; // counts of the tile values seen so far, value v at index v + 1
+        long inversions = 0;
+        int blank = 0;
+        for (int i = n - 1; i >= 0; i--) {
+            int value = tiles[i];
+            if (value == 0) {
+                blank = i;
+            }
+            // Smaller values already seen lie to the right of position i
+            for (int j = value; j > 0; j -= j & -j) {
+                inversions += tree[j];
+            }
+            for (int j = value + 1; j <= n; j += j & -j) {
+                tree[j]++;
+            }
+        }
+        int distance = blank / size + blank % size;
+        return (inversions & 1) == (distance & 1);
+    }
+}
@@ -0,0 +1,85 @@
+package eightpuzzle;
+
+/**
+ * A search algorithm configured with a board size and a node budget, for use without the command
+ * front end.
+ *
+ * Results come back as a {@link SearchResult} holding the moves as direction bytes (see
+ * {@link Board}), so nothing is printed and no strings are built. Solvers keep no state between
+ * calls and may be shared across threads. The factories return null when the algorithm does not
+ * support the requested board size or heuristic, mirroring the command errors.
+ *
+ * Both solve methods throw {@link IllegalArgumentException} for input that is not a board of the
+ * solver's size: the wrong number of tiles, tiles that are not each of 0 .. cells - 1 exactly
+ * once, or a long not packed as described below. A well-formed board that cannot reach the goal
+ * is not an error; it gives an UNSOLVABLE result.
+ */
+public interface Solver {
+
+    // Solves a board of the solver's size given as size * size row-major tiles; the array is not modified
+    SearchResult solve(byte[] tiles);
+
+    // Solves a packed board: the Board format for 3x3, one nibble per cell otherwise (up to 4x4)
+    SearchResult solve(long board);
+
+    // Whether every solution found is a shortest one
+    boolean optimal();
+
+    static Solver dfs(int size, int maxnodes) {
+        return SearchSolver.create(SearchSolver.Kind.DFS, size, "h2", maxnodes, "bucket");
+    }
+
+    static Solver bfs(int size, int maxnodes) {
+        return SearchSolver.create(SearchSolver.Kind.BFS, size, "h2", maxnodes, "bucket");
+    }
+
+    // Bidirectional BFS, 3x3 only
+    static Solver biBFS(int maxnodes) {
+        return SearchSolver.create(SearchSolver.Kind.BIBFS, Board.SIZE, "h2", maxnodes, "bucket");
+    }
+
+    // Optimal moves read from the precomputed move table, 3x3 only; no search and no budget needed
+    static Solver oracle() {
+        return SearchSolver.create(SearchSolver.Kind.ORACLE, Board.SIZE, "h2", Integer.MAX_VALUE, "bucket");
+    }
+
+    static Solver aStar(int size, String heuristic, int maxnodes) {
+        return aStar(size, heuristic, maxnodes, "bucket");
+    }
+
+    // A* with the open list named as on the command line, "bucket" or "heap"
+    static Solver aStar(int size, String heuristic, int maxnodes, String openList) {
+        return SearchSolver.create(SearchSolver.Kind.ASTAR, size, heuristic, maxnodes, openList);
+    }
+
+    // Anytime weighted A*, returning the best solution found when maxnodes or the time budget runs out
+    static Solver anytime(int size, String heuristic, int maxnodes, long budgetMillis) {
+        return SearchSolver.create(SearchSolver.Kind.ANYTIME, size, heuristic, maxnodes, "bucket",
+                budgetMillis * 1_000_000);
+    }
+
+    static Solver idaStar(int size, String heuristic, int maxnodes) {
+        return SearchSolver.create(SearchSolver.Kind.IDASTAR, size, heuristic, maxnodes, "bucket");
+    }
+
+    /**
+     * Solver for an algorithm name as used by solveBatch: DFS, BFS, BiBFS, Oracle,
+     * AStar-&lt;heuristic&gt; or IDAStar-&lt;heuristic&gt;. Returns null if the name is not recognised.
+     */
+    static Solver named(String name, int size, int maxnodes) {
+        if (name.equals("DFS")) {
+            return dfs(size, maxnodes);
+        } else if (name.equals("BFS")) {
+            return bfs(size, maxnodes);
+        } else if (name.equals("BiBFS")) {
+            return size == Board.SIZE ? biBFS(maxnodes) : null;
+        } else if (name.equals("Oracle")) {
+            return size == Board.SIZE ? oracle() : null;
+        } else if (name.startsWith("AStar-")) {
+            return aStar(size, name.substring("AStar-".length()), maxnodes);
+        } else if (name.startsWith("IDAStar-")) {
+            return idaStar(size, name.substring("IDAStar-".length()), maxnodes);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,220 @@
+package eightpuzzle;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Long-running server that answers commands over a local socket, so callers pay for JVM startup
+ * and JIT warm-up once instead of once per command file.
+ *
+ * Each connection is a session with its own {@link EightPuzzle}, so the board, board size,
+ * solution cache and last statistics are never shared between clients. Commands use the
+ * command-file syntax, one per line, and may be pipelined. The output of every command is
+ * followed by an empty line, so a client can match responses to requests. A connection's
+ * thread collects the commands that have already arrived and runs them as one batch on a worker
+ * pool with one thread per core. Searches from all sessions share the CPUs, each session's
+ * commands run in order, and the responses to a batch are flushed together.
+ *
+ * Any local process that can reach the socket is a client, so only commands that work on the
+ * session's own board are served: nothing that names a file or directory, and no cache sizing.
+ * At most {@link #MAX_SESSIONS} connections are served at once; further ones are told the
+ * server is busy and closed. A search may create at most {@link #MAX_NODES} nodes and an anytime
+ * search may run for at most {@link #MAX_MILLIS} ms, so no single request can take the heap or
+ * a worker for long.
+ */
+final class SolverServer {
+
+    private static final int MAX_BATCH = 1024; // commands run per worker task
+    static final int MAX_SESSIONS = 64;
+    static final int MAX_NODES = 1_000_000; // 3x3 searches never need more than the 181,440 boards
+    static final int MAX_MILLIS = 10_000;
+
+    // Commands a client may run; solveBatch reads and writes files, so it is left out of solve*
+    private static final Set<String> ALLOWED = Set.of("setState", "move", "printState", "setSize",
+            "scrambleState", "solveDFS", "solveBFS", "solveBiBFS", "solveAStar", "solveAnytime",
+            "solveIDAStar", "solveOracle", "printStats");
+    // Position of the maxnodes argument of each solve command that takes one
+    private static final Map<String, Integer> MAXNODES_ARGUMENT = Map.of("solveDFS", 1, "solveBFS", 1,
+            "solveBiBFS", 1, "solveAStar", 2, "solveAnytime", 2, "solveIDAStar", 2);
+    private static final String UNIX_PREFIX = "unix:";
+
+    private final ServerSocketChannel server;
+    private final String address;
+    private final ExecutorService workers = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    private final Semaphore sessions = new Semaphore(MAX_SESSIONS);
+
+    private SolverServer(ServerSocketChannel server, String address) {
+        this.server = server;
+        this.address = address;
+    }
+
+    // Listens on a loopback TCP port ("5000") or a Unix-domain socket ("unix:/tmp/eightpuzzle.sock")
+    static SolverServer open(String address) throws IOException {
+        if (address.startsWith(UNIX_PREFIX)) {
+            Path path = Paths.get(address.substring(UNIX_PREFIX.length()));
+            removeStaleSocket(path);
+            ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+            server.bind(UnixDomainSocketAddress.of(path));
+            return new SolverServer(server, address);
+        }
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(address)));
+        return new SolverServer(server, address);
+    }
+
+    /**
+     * Deletes a socket file left behind by a server that is no longer running. Anything else at
+     * the path, whether a file of another kind or a socket some server still accepts on, is left
+     * alone and reported as the address being in use.
+     */
+    private static void removeStaleSocket(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        if (!Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).isOther()) {
+            throw new IOException("address in use");
+        }
+        boolean live;
+        try {
+            SocketChannel.open(UnixDomainSocketAddress.of(path)).close();
+            live = true;
+        } catch (IOException e) {
+            live = false; // nobody is listening
+        }
+        if (live) {
+            throw new IOException("address in use");
+        }
+        Files.delete(path);
+    }
+
+    // Accepts connections until the process is stopped, each served on its own thread
+    void run() throws IOException {
+        System.out.println("Listening on " + address);
+        int count = 0;
+        while (true) {
+            SocketChannel channel = server.accept();
+            if (!sessions.tryAcquire()) {
+                try (channel) {
+                    channel.write(StandardCharsets.UTF_8.encode("Error: server busy\n\n"));
+                } catch (IOException e) {
+                    // The client has gone already
+                }
+                continue;
+            }
+            Thread session = new Thread(() -> serve(channel), "session-" + ++count);
+            session.setDaemon(true);
+            session.start();
+        }
+    }
+
+    private void serve(SocketChannel channel) {
+        try {
+            session(channel);
+        } finally {
+            sessions.release();
+        }
+    }
+
+    private void session(SocketChannel channel) {
+        try (channel;
+                BufferedReader in = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8), 1 << 16);
+                PrintStream out = new PrintStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16),
+                        false, StandardCharsets.UTF_8)) {
+            EightPuzzle puzzle = new EightPuzzle(out);
+            List<String> batch = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                batch.add(line);
+                // Keep collecting while pipelined commands are already waiting
+                if (batch.size() < MAX_BATCH && in.ready()) {
+                    continue;
+                }
+                List<String> commands = new ArrayList<>(batch);
+                batch.clear();
+                workers.submit(() -> execute(puzzle, out, commands)).get();
+            }
+        } catch (IOException | ExecutionException e) {
+            // The client went away or the batch failed; this session ends, others carry on
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void execute(EightPuzzle puzzle, PrintStream out, List<String> commands) {
+        for (String command : commands) {
+            command = command.trim();
+            if (command.isEmpty() || command.startsWith("#") || command.startsWith("//")) {
+                continue;
+            }
+            int end = command.indexOf(' ');
+            String name = end < 0 ? command : command.substring(0, end);
+            if (!ALLOWED.contains(name)) {
+                out.println("Error: command not available in server mode: " + name);
+                out.println();
+                continue;
+            }
+            String overBudget = overBudget(name, command);
+            if (overBudget != null) {
+                out.println(overBudget);
+                out.println();
+                continue;
+            }
+            try {
+                puzzle.cmd(command);
+            } catch (RuntimeException e) {
+                // Reply and keep the session
+                out.println("Error: " + e);
+            }
+            out.println();
+        }
+        out.flush();
+    }
+
+    // Error for a solve command asking for more nodes or time than the server allows, or null
+    private static String overBudget(String name, String command) {
+        Integer argument = MAXNODES_ARGUMENT.get(name);
+        if (argument == null) {
+            return null;
+        }
+        String[] tokens = command.split("\\s+");
+        // Malformed numbers are left for the command itself to report
+        if (tokens.length > argument && exceeds(tokens[argument], MAX_NODES)) {
+            return "Error: maxnodes above the server limit (" + MAX_NODES + ")";
+        }
+        if (name.equals("solveAnytime") && tokens.length > 3 && exceeds(tokens[3], MAX_MILLIS)) {
+            return "Error: time limit above the server limit (" + MAX_MILLIS + " ms)";
+        }
+        return null;
+    }
+
+    private static boolean exceeds(String token, int limit) {
+        try {
+            return Long.parseLong(token) > limit;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
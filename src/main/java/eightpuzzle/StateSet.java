@@ -0,0 +1,31 @@
+package eightpuzzle;
+
+/**
+ * Set of 3x3 boards backed by a bitset indexed by {@link Board#rank(long)}.
+ *
+ * Every permutation has its own bit, so membership costs one rank computation and one word
+ * lookup, and the whole 9! state space fits in 45 KB.
+ */
+public final class StateSet implements BoardSet {
+
+    private final long[] bits = new long[(Board.PERMUTATIONS + 63) >>> 6];
+    private int size;
+
+    @Override
+    public boolean add(long board) {
+        int rank = Board.rank(board);
+        long mask = 1L << rank;
+        long word = bits[rank >>> 6];
+        if ((word & mask) != 0) {
+            return false;
+        }
+        bits[rank >>> 6] = word | mask;
+        size++;
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
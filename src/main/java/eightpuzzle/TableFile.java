@@ -0,0 +1,79 @@
+package eightpuzzle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+
+/**
+ * Binary file holding a precomputed table, shared by {@link PatternDatabase} and
+ * {@link MoveOracle}.
+ *
+ * The file is an 8-byte header (a magic number naming the table, then its entry count) followed
+ * by the table bytes. A valid file is memory-mapped; a missing or invalid one is regenerated and
+ * replaced atomically through a temporary file. If the file cannot be used at all, the table is
+ * built in memory for this process only and the reason is kept for the caller to report.
+ */
+final class TableFile {
+
+    static final int HEADER_BYTES = 8; // magic, entry count
+
+    final ByteBuffer buffer; // header followed by the table
+    final String error; // why the file could not be used, or null if it was
+
+    private TableFile(ByteBuffer buffer, String error) {
+        this.buffer = buffer;
+        this.error = error;
+    }
+
+    /**
+     * Maps the table at path, generating and writing it first if the file is missing or does not
+     * hold a table of this magic, entry count and size. The description names the table in the
+     * error message ("pattern database", "move table").
+     */
+    static TableFile load(Path path, int magic, int entries, int bytes, Supplier<byte[]> build, String description) {
+        try {
+            if (Files.exists(path)) {
+                ByteBuffer buffer = map(path, magic, entries, bytes);
+                if (buffer != null) {
+                    return new TableFile(buffer, null);
+                }
+            }
+            write(path, magic, entries, build.get());
+            return new TableFile(map(path, magic, entries, bytes), null);
+        } catch (IOException e) {
+            // Fall back to a table that lives only in this process
+            return new TableFile(ByteBuffer.wrap(withHeader(magic, entries, build.get())),
+                    "Error: unable to use " + description + " file " + path);
+        }
+    }
+
+    private static ByteBuffer map(Path path, int magic, int entries, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != HEADER_BYTES + bytes) {
+                return null;
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != magic || buffer.getInt(4) != entries) {
+                return null;
+            }
+            return buffer;
+        }
+    }
+
+    static void write(Path path, int magic, int entries, byte[] table) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, withHeader(magic, entries, table));
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static byte[] withHeader(int magic, int entries, byte[] table) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + table.length);
+        buffer.putInt(magic).putInt(entries).put(table);
+        return buffer.array();
+    }
+}
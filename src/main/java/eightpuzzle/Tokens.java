@@ -0,0 +1,60 @@
+package eightpuzzle;
+
+import java.util.Arrays;
+
+/**
+ * Space-separated tokens of a command line, located in place without copying.
+ *
+ * Tokens are split on single spaces exactly like {@code line.split(" ")}: consecutive spaces
+ * produce empty tokens and trailing empty tokens are dropped. Only token boundaries are
+ * recorded, so integer arguments are parsed straight out of the line and a String is built only
+ * when a token is asked for as one. An instance is reused for every line it is reset to.
+ */
+final class Tokens {
+
+    private String line = "";
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private int count;
+
+    Tokens reset(String line) {
+        this.line = line;
+        count = 0;
+        int start = 0;
+        int length = line.length();
+        // As with split, a line without a separator is a single token, even when empty
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line.charAt(i) == ' ') {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                starts[count] = start;
+                ends[count] = i;
+                count++;
+                start = i + 1;
+            }
+        }
+        while (count > 1 && starts[count - 1] == ends[count - 1]) {
+            count--;
+        }
+        return this;
+    }
+
+    int count() {
+        return count;
+    }
+
+    String get(int i) {
+        return line.substring(starts[i], ends[i]);
+    }
+
+    // Integer value of token i; throws NumberFormatException like Integer.parseInt
+    int getInt(int i) {
+        return Integer.parseInt(line, starts[i], ends[i], 10);
+    }
+
+    long getLong(int i) {
+        return Long.parseLong(line, starts[i], ends[i], 10);
+    }
+}